@@ -6,7 +6,7 @@ lowMin: 100.0
 lowMax: 100.0
 - Count - 
 min: 0
-max: 200
+max: 32
 - Emission - 
 lowMin: 0.0
 lowMax: 0.0
@@ -167,7 +167,7 @@ lowMin: 100.0
 lowMax: 100.0
 - Count - 
 min: 0
-max: 200
+max: 32
 - Emission - 
 lowMin: 0.0
 lowMax: 0.0
@@ -328,7 +328,7 @@ lowMin: 100.0
 lowMax: 100.0
 - Count - 
 min: 0
-max: 200
+max: 32
 - Emission - 
 lowMin: 0.0
 lowMax: 0.0
@@ -489,7 +489,7 @@ lowMin: 100.0
 lowMax: 100.0
 - Count - 
 min: 0
-max: 200
+max: 32
 - Emission - 
 lowMin: 0.0
 lowMax: 0.0
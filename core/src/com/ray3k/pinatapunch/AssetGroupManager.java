@@ -0,0 +1,257 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class AssetGroupManager {
+    private final AssetManager assetManager;
+    private final ObjectMap<String, AssetGroup> groups;
+    private final Array<AssetGroup> pending;
+    private final Array<AssetGroup> loading;
+    private final ConcurrentLinkedQueue<AssetGroup> requests;
+    private final Array<AssetGroupListener> listeners;
+    private final long creationTime;
+    private int updateMillis;
+    private long peakHeap;
+
+    public static class AssetGroup {
+        private final String name;
+        private final int priority;
+        private final Array<AssetDescriptor<?>> assets;
+        private volatile boolean queued;
+        private boolean requested;
+        //written by the thread running update and read by the ticks, which may be on the simulation thread
+        private volatile boolean loaded;
+        private volatile int loadedCount;
+        private long requestTime;
+        private long loadedTime;
+
+        public AssetGroup(String name, int priority) {
+            this.name = name;
+            this.priority = priority;
+            assets = new Array<AssetDescriptor<?>>();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        public Array<AssetDescriptor<?>> getAssets() {
+            return assets;
+        }
+
+        public boolean isRequested() {
+            return requested;
+        }
+
+        public boolean isLoaded() {
+            return loaded;
+        }
+
+        public long getRequestTime() {
+            return requestTime;
+        }
+
+        public long getLoadedTime() {
+            return loadedTime;
+        }
+    }
+
+    public interface AssetGroupListener {
+        public void groupLoaded(AssetGroup group);
+    }
+
+    public AssetGroupManager(AssetManager assetManager, int updateMillis) {
+        this.assetManager = assetManager;
+        this.updateMillis = updateMillis;
+        groups = new ObjectMap<String, AssetGroup>();
+        pending = new Array<AssetGroup>();
+        loading = new Array<AssetGroup>();
+        requests = new ConcurrentLinkedQueue<AssetGroup>();
+        listeners = new Array<AssetGroupListener>();
+        creationTime = TimeUtils.millis();
+        peakHeap = 0;
+    }
+
+    public AssetGroup addGroup(String name, int priority) {
+        AssetGroup group = new AssetGroup(name, priority);
+        groups.put(name, group);
+        return group;
+    }
+
+    public <T> void add(String group, String fileName, Class<T> type) {
+        groups.get(group).assets.add(new AssetDescriptor<T>(fileName, type));
+    }
+
+    public <T> void add(String group, String fileName, Class<T> type, AssetLoaderParameters<T> parameter) {
+        groups.get(group).assets.add(new AssetDescriptor<T>(fileName, type, parameter));
+    }
+
+    public AssetGroup getGroup(String name) {
+        return groups.get(name);
+    }
+
+    public void clear() {
+        groups.clear();
+        pending.clear();
+        loading.clear();
+        requests.clear();
+    }
+
+    //safe to call from any thread, the request is picked up by the next update
+    public void request(String name) {
+        AssetGroup group = groups.get(name);
+        if (group == null) {
+            Gdx.app.error(AssetGroupManager.class.getName(), "Asset group does not exist: " + name);
+        } else if (!group.queued) {
+            group.queued = true;
+            requests.add(group);
+        }
+    }
+
+    private void takeRequests() {
+        AssetGroup group;
+        while ((group = requests.poll()) != null) {
+            if (!group.requested) {
+                group.requested = true;
+                group.requestTime = TimeUtils.millis();
+
+                //the asset manager loads in queue order, so groups are only handed over once the more urgent ones are done
+                int index = 0;
+                while (index < pending.size && pending.get(index).priority <= group.priority) {
+                    index++;
+                }
+                pending.insert(index, group);
+            }
+        }
+    }
+
+    public boolean update() {
+        takeRequests();
+        
+        if (loading.size == 0) {
+            forwardNextGroup();
+        }
+
+        if (loading.size > 0) {
+            assetManager.update(updateMillis);
+            updatePeakHeap();
+
+            for (int i = 0; i < loading.size; i++) {
+                AssetGroup group = loading.get(i);
+                if (countLoaded(group) == group.assets.size) {
+                    loading.removeIndex(i);
+                    i--;
+
+                    group.loadedTime = TimeUtils.millis();
+                    Gdx.app.log(AssetGroupManager.class.getName(), "Asset group " + group.name + " loaded in " + (group.loadedTime - group.requestTime) + "ms, " + (group.loadedTime - creationTime) + "ms after startup, peak heap " + (peakHeap / 1024) + "KB");
+
+                    for (AssetGroupListener listener : listeners) {
+                        listener.groupLoaded(group);
+                    }
+                    
+                    //set last so a group reported as loaded has also been seen by the listeners
+                    group.loaded = true;
+                }
+            }
+        }
+
+        return pending.size == 0 && loading.size == 0;
+    }
+
+    private void forwardNextGroup() {
+        if (pending.size > 0) {
+            AssetGroup group = pending.removeIndex(0);
+            for (AssetDescriptor<?> descriptor : group.assets) {
+                assetManager.load(descriptor);
+            }
+            loading.add(group);
+        }
+    }
+
+    private int countLoaded(AssetGroup group) {
+        int loadedCount = 0;
+        for (AssetDescriptor<?> descriptor : group.assets) {
+            if (assetManager.isLoaded(descriptor.fileName)) {
+                loadedCount++;
+            }
+        }
+        group.loadedCount = loadedCount;
+        return loadedCount;
+    }
+
+    private void updatePeakHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        if (used > peakHeap) {
+            peakHeap = used;
+        }
+    }
+
+    public boolean isLoaded(String name) {
+        AssetGroup group = groups.get(name);
+        return group != null && group.loaded;
+    }
+
+    public float getProgress(String name) {
+        AssetGroup group = groups.get(name);
+        if (group == null || group.loaded || group.assets.size == 0) {
+            return 1.0f;
+        }
+        
+        return group.loadedCount / (float) group.assets.size;
+    }
+
+    public void addListener(AssetGroupListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(AssetGroupListener listener) {
+        listeners.removeValue(listener, true);
+    }
+
+    public int getUpdateMillis() {
+        return updateMillis;
+    }
+
+    public void setUpdateMillis(int updateMillis) {
+        this.updateMillis = updateMillis;
+    }
+
+    public long getPeakHeap() {
+        return peakHeap;
+    }
+}
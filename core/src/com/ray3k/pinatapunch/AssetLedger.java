@@ -0,0 +1,286 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.esotericsoftware.spine.SkeletonData;
+
+public class AssetLedger {
+    private static final long PARTICLE_BYTES = 200;
+    private static final long GLYPH_BYTES = 64;
+    private final AssetManager assetManager;
+    private final Core core;
+    private final Array<Entry> entries;
+    private final ObjectMap<String, Entry> categories;
+    private final ObjectSet<String> intermediates;
+    private final ObjectSet<Texture> countedTextures;
+    private long budget;
+    private boolean overBudget;
+
+    public static class Entry {
+        private String name;
+        private String category;
+        private long cpuBytes;
+        private long gpuBytes;
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public long getCpuBytes() {
+            return cpuBytes;
+        }
+
+        public long getGpuBytes() {
+            return gpuBytes;
+        }
+
+        public long getTotalBytes() {
+            return cpuBytes + gpuBytes;
+        }
+    }
+
+    public AssetLedger(Core core, long budget) {
+        this.core = core;
+        this.assetManager = core.getAssetManager();
+        this.budget = budget;
+        entries = new Array<Entry>();
+        categories = new ObjectMap<String, Entry>();
+        intermediates = new ObjectSet<String>();
+        countedTextures = new ObjectSet<Texture>();
+        overBudget = false;
+    }
+
+    public void markIntermediate(String fileName) {
+        intermediates.add(fileName);
+    }
+
+    public void releaseIntermediates() {
+        for (String fileName : intermediates) {
+            if (assetManager.isLoaded(fileName)) {
+                assetManager.unload(fileName);
+            }
+        }
+        intermediates.clear();
+    }
+
+    public void update() {
+        entries.clear();
+        categories.clear();
+        countedTextures.clear();
+
+        Array<String> names = assetManager.getAssetNames();
+
+        //textures are measured first so atlases, skins and effects don't count them twice
+        for (String name : names) {
+            if (assetManager.getAssetType(name) == Texture.class && assetManager.isLoaded(name)) {
+                Entry entry = createEntry(name, "Texture");
+                entry.gpuBytes = measureTexture(assetManager.get(name, Texture.class));
+            }
+        }
+
+        for (String name : names) {
+            Class<?> type = assetManager.getAssetType(name);
+            if (type == Texture.class || !assetManager.isLoaded(name)) {
+                continue;
+            }
+
+            Entry entry = createEntry(name, type.getSimpleName());
+            if (type == Pixmap.class) {
+                entry.cpuBytes = assetManager.get(name, Pixmap.class).getPixels().capacity();
+            } else if (type == TextureAtlas.class) {
+                entry.gpuBytes = measureAtlas(assetManager.get(name, TextureAtlas.class));
+            } else if (type == Skin.class) {
+                Skin skin = assetManager.get(name, Skin.class);
+                for (BitmapFont font : skin.getAll(BitmapFont.class).values()) {
+                    entry.cpuBytes += measureFontGlyphs(font);
+                    for (TextureRegion region : font.getRegions()) {
+                        entry.gpuBytes += measureTexture(region.getTexture());
+                    }
+                }
+            } else if (type == ParticleEffect.class) {
+                for (ParticleEmitter emitter : assetManager.get(name, ParticleEffect.class).getEmitters()) {
+                    entry.cpuBytes += emitter.getMaxParticleCount() * PARTICLE_BYTES;
+                }
+            } else if (type == SkeletonData.class || type == Sound.class) {
+                //parsed skeletons and decoded PCM are roughly the size of their source files
+                entry.cpuBytes = assetManager.getFileHandleResolver().resolve(name).length();
+            }
+        }
+
+        PixmapPacker pixmapPacker = core.getPixmapPacker();
+        if (core.getAtlas() != null && pixmapPacker != null) {
+            Entry entry = createEntry("runtime atlas", "TextureAtlas");
+            for (PixmapPacker.Page page : pixmapPacker.getPages()) {
+                entry.cpuBytes += page.getPixmap().getPixels().capacity();
+            }
+            entry.gpuBytes = measureAtlas(core.getAtlas());
+        }
+
+        long total = getTotalBytes();
+        if (total > budget) {
+            if (!overBudget) {
+                Gdx.app.error(AssetLedger.class.getName(), "Asset memory " + (total / 1024) + "KB exceeds the budget of " + (budget / 1024) + "KB");
+            }
+            overBudget = true;
+        } else {
+            overBudget = false;
+        }
+    }
+
+    public void log() {
+        for (Entry entry : entries) {
+            Gdx.app.debug(AssetLedger.class.getName(), entry.name + " (" + entry.category + "): cpu " + (entry.cpuBytes / 1024) + "KB, gpu " + (entry.gpuBytes / 1024) + "KB");
+        }
+
+        for (Entry category : getCategories().values()) {
+            Gdx.app.log(AssetLedger.class.getName(), category.name + ": cpu " + (category.cpuBytes / 1024) + "KB, gpu " + (category.gpuBytes / 1024) + "KB");
+        }
+
+        Gdx.app.log(AssetLedger.class.getName(), "Total: " + (getTotalBytes() / 1024) + "KB of " + (budget / 1024) + "KB budget");
+    }
+
+    private Entry createEntry(String name, String category) {
+        Entry entry = new Entry();
+        entry.name = name;
+        entry.category = category;
+        entries.add(entry);
+        return entry;
+    }
+
+    private long measureAtlas(TextureAtlas atlas) {
+        long returnValue = 0;
+        for (Texture texture : atlas.getTextures()) {
+            returnValue += measureTexture(texture);
+        }
+        return returnValue;
+    }
+
+    private long measureTexture(Texture texture) {
+        if (!countedTextures.add(texture)) {
+            return 0;
+        }
+
+        TextureData data = texture.getTextureData();
+        long returnValue = (long) texture.getWidth() * texture.getHeight() * bytesPerPixel(data.getFormat());
+        if (data.useMipMaps()) {
+            returnValue = returnValue * 4 / 3;
+        }
+        return returnValue;
+    }
+
+    private long measureFontGlyphs(BitmapFont font) {
+        long returnValue = 0;
+        for (BitmapFont.Glyph[] page : font.getData().glyphs) {
+            if (page != null) {
+                for (BitmapFont.Glyph glyph : page) {
+                    if (glyph != null) {
+                        returnValue += GLYPH_BYTES;
+                    }
+                }
+            }
+        }
+        return returnValue;
+    }
+
+    private int bytesPerPixel(Pixmap.Format format) {
+        if (format == null) {
+            return 4;
+        }
+
+        switch (format) {
+            case Alpha:
+            case Intensity:
+                return 1;
+            case LuminanceAlpha:
+            case RGB565:
+            case RGBA4444:
+                return 2;
+            case RGB888:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+
+    public Array<Entry> getEntries() {
+        return entries;
+    }
+
+    public ObjectMap<String, Entry> getCategories() {
+        if (categories.size == 0) {
+            for (Entry entry : entries) {
+                Entry category = categories.get(entry.category);
+                if (category == null) {
+                    category = new Entry();
+                    category.name = entry.category;
+                    category.category = entry.category;
+                    categories.put(entry.category, category);
+                }
+                category.cpuBytes += entry.cpuBytes;
+                category.gpuBytes += entry.gpuBytes;
+            }
+        }
+        return categories;
+    }
+
+    public long getTotalBytes() {
+        long returnValue = 0;
+        for (Entry entry : entries) {
+            returnValue += entry.getTotalBytes();
+        }
+        return returnValue;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public void setBudget(long budget) {
+        this.budget = budget;
+    }
+
+    public boolean isOverBudget() {
+        return overBudget;
+    }
+}
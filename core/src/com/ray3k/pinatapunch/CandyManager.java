@@ -0,0 +1,142 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+
+public class CandyManager {
+    private static final float GRAVITY = 700.0f;
+    private static final float KILL_Y = -200.0f;
+    private static final float MAX_ROTATION_SPEED = 300.0f;
+    private final Array<TextureRegion> regions;
+    private float[] x;
+    private float[] y;
+    private float[] xSpeed;
+    private float[] ySpeed;
+    private float[] rotation;
+    private float[] rotationSpeed;
+    private int[] region;
+    private int size;
+
+    public CandyManager(int initialCapacity) {
+        regions = new Array<TextureRegion>();
+        x = new float[initialCapacity];
+        y = new float[initialCapacity];
+        xSpeed = new float[initialCapacity];
+        ySpeed = new float[initialCapacity];
+        rotation = new float[initialCapacity];
+        rotationSpeed = new float[initialCapacity];
+        region = new int[initialCapacity];
+        size = 0;
+    }
+
+    public void addRegion(TextureRegion textureRegion) {
+        regions.add(textureRegion);
+    }
+
+    public void clearRegions() {
+        regions.clear();
+    }
+
+    public void spawn(float x, float y, float speed, float direction) {
+        if (size == this.x.length) {
+            resize(Math.max(16, size * 2));
+        }
+
+        this.x[size] = x;
+        this.y[size] = y;
+        xSpeed[size] = speed * MathUtils.cosDeg(direction);
+        ySpeed[size] = speed * MathUtils.sinDeg(direction);
+        rotation[size] = 0.0f;
+        rotationSpeed[size] = MathUtils.random(-MAX_ROTATION_SPEED, MAX_ROTATION_SPEED);
+        region[size] = regions.size > 0 ? MathUtils.random(regions.size - 1) : 0;
+        size++;
+    }
+
+    public void act(float delta) {
+        float gravity = GRAVITY * delta;
+
+        for (int i = 0; i < size; i++) {
+            ySpeed[i] -= gravity;
+            x[i] += xSpeed[i] * delta;
+            y[i] += ySpeed[i] * delta;
+            rotation[i] += rotationSpeed[i] * delta;
+
+            //candies fall out of play, so order doesn't matter and the last one can fill the gap
+            if (y[i] < KILL_Y) {
+                size--;
+                x[i] = x[size];
+                y[i] = y[size];
+                xSpeed[i] = xSpeed[size];
+                ySpeed[i] = ySpeed[size];
+                rotation[i] = rotation[size];
+                rotationSpeed[i] = rotationSpeed[size];
+                region[i] = region[size];
+                i--;
+            }
+        }
+    }
+
+    public void draw(Batch batch, float delta) {
+        if (regions.size == 0) {
+            return;
+        }
+
+        for (int i = 0; i < size; i++) {
+            TextureRegion textureRegion = regions.get(region[i]);
+            float width = textureRegion.getRegionWidth();
+            float height = textureRegion.getRegionHeight();
+            batch.draw(textureRegion, x[i] + xSpeed[i] * delta, y[i] + ySpeed[i] * delta, width / 2.0f, height / 2.0f, width, height, 1.0f, 1.0f, rotation[i]);
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        x = copy(x, capacity);
+        y = copy(y, capacity);
+        xSpeed = copy(xSpeed, capacity);
+        ySpeed = copy(ySpeed, capacity);
+        rotation = copy(rotation, capacity);
+        rotationSpeed = copy(rotationSpeed, capacity);
+        int[] newRegion = new int[capacity];
+        System.arraycopy(region, 0, newRegion, 0, size);
+        region = newRegion;
+    }
+
+    private float[] copy(float[] array, int capacity) {
+        float[] returnValue = new float[capacity];
+        System.arraycopy(array, 0, returnValue, 0, size);
+        return returnValue;
+    }
+
+    public int getCount() {
+        return size;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+public class ChunkRing {
+    private final float[] chunkX;
+    private float chunkWidth;
+    private int first;
+    private int repositionCount;
+
+    public ChunkRing(int count) {
+        chunkX = new float[count];
+    }
+
+    public void reset(float centerX, float chunkWidth) {
+        this.chunkWidth = chunkWidth;
+        first = 0;
+        repositionCount = 0;
+        float x = centerX - chunkX.length * chunkWidth / 2.0f;
+        for (int i = 0; i < chunkX.length; i++) {
+            chunkX[i] = x + i * chunkWidth;
+        }
+    }
+
+    public void setChunkWidth(float chunkWidth) {
+        this.chunkWidth = chunkWidth;
+        float x = chunkX[first];
+        for (int i = 0; i < chunkX.length; i++) {
+            chunkX[(first + i) % chunkX.length] = x + i * chunkWidth;
+        }
+    }
+
+    public void update(float left, float right) {
+        int last = (first + chunkX.length - 1) % chunkX.length;
+
+        while (chunkX[last] + chunkWidth < right) {
+            chunkX[first] = chunkX[last] + chunkWidth;
+            last = first;
+            first = (first + 1) % chunkX.length;
+            repositionCount++;
+        }
+
+        while (chunkX[first] > left) {
+            chunkX[last] = chunkX[first] - chunkWidth;
+            first = last;
+            last = (last + chunkX.length - 1) % chunkX.length;
+            repositionCount++;
+        }
+    }
+
+    public int getCount() {
+        return chunkX.length;
+    }
+
+    public float getChunkX(int index) {
+        return chunkX[index];
+    }
+
+    public float getChunkWidth() {
+        return chunkWidth;
+    }
+
+    public float getLeft() {
+        return chunkX[first];
+    }
+
+    public float getRight() {
+        return chunkX[(first + chunkX.length - 1) % chunkX.length] + chunkWidth;
+    }
+
+    public int getRepositionCount() {
+        return repositionCount;
+    }
+}
@@ -2,24 +2,36 @@ package com.ray3k.pinatapunch;
 
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input.Keys;
+import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.assets.loaders.ParticleEffectLoader;
 import com.badlogic.gdx.assets.loaders.ParticleEffectLoader.ParticleEffectParameter;
 import com.badlogic.gdx.assets.loaders.resolvers.LocalFileHandleResolver;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
 import com.badlogic.gdx.graphics.g2d.PixmapPacker;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
 import com.badlogic.gdx.utils.TimeUtils;
 import com.esotericsoftware.spine.SkeletonData;
 import com.esotericsoftware.spine.SkeletonRenderer;
+import com.ray3k.pinatapunch.AssetGroupManager.AssetGroup;
+import com.ray3k.pinatapunch.AssetGroupManager.AssetGroupListener;
 import com.ray3k.pinatapunch.SkeletonDataLoader.SkeletonDataLoaderParameter;
+import com.ray3k.pinatapunch.states.BenchmarkState;
 import com.ray3k.pinatapunch.states.GameOverState;
 import com.ray3k.pinatapunch.states.GameState;
 import com.ray3k.pinatapunch.states.LoadingState;
@@ -34,16 +46,41 @@ import javax.swing.JOptionPane;
 public class Core extends ApplicationAdapter {
     public final static String VERSION = "1";
     public final static String DATA_PATH = "pinata_punch_data";
+    public final static String PACKED_ATLAS_PATH = DATA_PATH + "/packed/images.atlas";
+    public final static String SOUND_HIT = DATA_PATH + "/sfx/hit.wav";
+    public final static String SOUND_PUNCH = DATA_PATH + "/sfx/punch.wav";
+    public final static String SOUND_SWOOSH = DATA_PATH + "/sfx/swoosh.wav";
+    public final static String EFFECT_CONFETTI = DATA_PATH + "/particles/confetti.p";
+    public final static String SAVE_FILE = "pinata-punch.sav";
+    private final static int PARTICLE_CAP = 4000;
     private final static long MS_PER_UPDATE = 10;
+    private final static long DEFAULT_ASSET_BUDGET_MEGABYTES = 64;
+    public final static int STREAMING_UPDATE_MILLIS = 4;
+    public final static int LOADING_UPDATE_MILLIS = 15;
     private AssetManager assetManager;
+    private SaveStore saveStore;
+    private AssetGroupManager assetGroupManager;
+    private SoundManager soundManager;
+    private GameEventQueue eventQueue;
+    private HitTester hitTester;
+    private EffectManager effectManager;
     private StateManager stateManager;
     private SpriteBatch spriteBatch;
     private PixmapPacker pixmapPacker;
     private long previous;
     private long lag;
     private TextureAtlas atlas;
+    private TextureAtlas packedAtlas;
+    private Array<String> runtimePackFiles;
     private SkeletonRenderer skeletonRenderer;
     private ObjectMap<String, Array<String>> imagePacks;
+    private AssetLedger assetLedger;
+    private RenderStats renderStats;
+    private LatencyStats latencyStats;
+    private JsonValue data;
+    private boolean simulationThreaded;
+    private SimulationThread simulationThread;
+    private String startState = "loading";
 
     @Override
     public void create() {
@@ -55,7 +92,11 @@ public class Core extends ApplicationAdapter {
             previous = TimeUtils.millis();
             lag = 0;
 
-            stateManager.loadState("loading");
+            stateManager.loadState(startState);
+            
+            if (simulationThread != null) {
+                simulationThread.start();
+            }
         } catch (Exception e) {
             e.printStackTrace();
             
@@ -85,25 +126,77 @@ public class Core extends ApplicationAdapter {
     }
     
     public void initManagers() {
+        saveStore = new SaveStore(Gdx.files.local(SAVE_FILE).file());
+        saveStore.load();
+        saveStore.start();
+        
         assetManager = new AssetManager(new LocalFileHandleResolver(), true);
         assetManager.setLoader(SkeletonData.class, new SkeletonDataLoader(new LocalFileHandleResolver()));
         
+        assetGroupManager = new AssetGroupManager(assetManager, STREAMING_UPDATE_MILLIS);
+        assetGroupManager.addListener(new AssetGroupListener() {
+            @Override
+            public void groupLoaded(AssetGroup group) {
+                if (group.getName().equals("game")) {
+                    packImages();
+                }
+                assetLedger.update();
+                assetLedger.log();
+            }
+        });
+        
+        soundManager = new SoundManager(assetManager);
+        soundManager.register(SOUND_HIT, 1, 3.4f);
+        soundManager.register(SOUND_PUNCH, 3, .42f);
+        soundManager.register(SOUND_SWOOSH, 3, .47f);
+        
+        eventQueue = new GameEventQueue(64);
+        eventQueue.subscribe(new GameEventQueue.GameEventListener() {
+            @Override
+            public void handle(GameEventQueue events) {
+                for (int i = 0; i < events.getSize(); i++) {
+                    if (events.getType(i) == GameEventQueue.Type.SOUND) {
+                        soundManager.play((SoundManager.SoundHandle) events.getObject(i), events.getFloat(i));
+                    }
+                }
+            }
+        }, GameEventQueue.Type.SOUND);
+        
+        effectManager = new EffectManager(assetManager, PARTICLE_CAP);
+        
+        hitTester = new HitTester();
+        
         stateManager = new StateManager(this);
+        stateManager.setLoadingState("loading");
         stateManager.addState("loading", new LoadingState("menu", this));
         stateManager.addState("menu", new MenuState(this));
         stateManager.addState("game", new GameState(this));
         stateManager.addState("game-over", new GameOverState(this));
+        stateManager.addState("benchmark", new BenchmarkState(this));
         
-        spriteBatch = new SpriteBatch();
+        renderStats = new RenderStats();
+        renderStats.setHudVisible(saveStore.getBoolean("hudVisible", false));
+        latencyStats = new LatencyStats();
+        spriteBatch = new StatsSpriteBatch(renderStats);
         
         pixmapPacker = new PixmapPacker(1024, 1024, Pixmap.Format.RGBA8888, 5, true, new PixmapPacker.GuillotineStrategy());
         
-        skeletonRenderer = new SkeletonRenderer();
+        skeletonRenderer = new StatsSkeletonRenderer(renderStats);
         
         imagePacks = new ObjectMap<String, Array<String>>();
         for (String name : new String[] {"candy"}) {
             imagePacks.put(DATA_PATH + "/" + name, new Array<String>());
         }
+        
+        runtimePackFiles = new Array<String>();
+        
+        data = new JsonReader().parse(Gdx.files.local(DATA_PATH + "/data.json"));
+        assetLedger = new AssetLedger(this, data.getLong("assetBudgetMegabytes", DEFAULT_ASSET_BUDGET_MEGABYTES) * 1024 * 1024);
+        
+        simulationThreaded = simulationThreaded || data.getBoolean("simulationThread", false);
+        if (simulationThreaded) {
+            simulationThread = new SimulationThread(this, MS_PER_UPDATE);
+        }
     }
     
     @Override
@@ -113,13 +206,45 @@ public class Core extends ApplicationAdapter {
             long elapsed = current - previous;
             previous = current;
             lag += elapsed;
+            
+            if (simulationThread != null) {
+                simulationThread.checkFailure();
+                
+                //only a state change is made under the simulation lock, since it swaps out what the ticks work on
+                assetGroupManager.update();
+                if (stateManager.isStatePending()) {
+                    synchronized (simulationThread.getLock()) {
+                        stateManager.loadPendingState();
+                    }
+                }
+                soundManager.flush();
+                
+                renderStats.beginFrame();
+                simulationThread.acquireSnapshot().replay(spriteBatch, renderStats);
+                renderStats.endFrame();
+            } else {
+                assetGroupManager.update();
 
-            while (lag >= MS_PER_UPDATE) {
-                stateManager.act(MS_PER_UPDATE / 1000.0f);
-                lag -= MS_PER_UPDATE;
-            }
+                while (lag >= MS_PER_UPDATE) {
+                    stateManager.act(MS_PER_UPDATE / 1000.0f);
+                    lag -= MS_PER_UPDATE;
+                }
 
-            stateManager.draw(spriteBatch, lag / MS_PER_UPDATE);
+                soundManager.flush();
+
+                renderStats.beginFrame();
+                stateManager.draw(spriteBatch, lag / MS_PER_UPDATE);
+                renderStats.endFrame();
+            }
+            
+            if (Gdx.input.isKeyJustPressed(Keys.F3)) {
+                renderStats.setHudVisible(!renderStats.isHudVisible());
+                saveStore.putBoolean("hudVisible", renderStats.isHudVisible());
+            }
+            
+            if (renderStats.isHudVisible()) {
+                renderStats.drawHud(spriteBatch, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+            }
         } catch (Exception e) {
             e.printStackTrace();
             
@@ -150,41 +275,105 @@ public class Core extends ApplicationAdapter {
 
     @Override
     public void dispose() {
+        if (simulationThread != null) {
+            simulationThread.stopSimulation();
+            simulationThread.getRecordingBatch().dispose();
+        }
         assetManager.dispose();
         stateManager.dispose();
         pixmapPacker.dispose();
+        renderStats.dispose();
         if (atlas != null) {
             atlas.dispose();
         }
+        saveStore.dispose();
     }
     
     public void loadAssets() {
         assetManager.clear();
-        SkeletonDataLoaderParameter parameter = new SkeletonDataLoaderParameter(DATA_PATH + "/spine/pinata-punch.atlas");
-        assetManager.load(DATA_PATH + "/spine/donkey.json", SkeletonData.class, parameter);
-        assetManager.load(DATA_PATH + "/spine/hat.json", SkeletonData.class, parameter);
-        assetManager.load(DATA_PATH + "/spine/player.json", SkeletonData.class, parameter);
-        assetManager.load(DATA_PATH + "/spine/spike.json", SkeletonData.class, parameter);
+        assetGroupManager.clear();
+        
+        assetGroupManager.addGroup("menu", 0);
+        assetGroupManager.add("menu", DATA_PATH + "/ui/pinata-punch.json", Skin.class);
+        assetGroupManager.add("menu", SOUND_PUNCH, Sound.class);
         
-        assetManager.load(DATA_PATH + "/ui/pinata-punch.json", Skin.class);
+        assetGroupManager.addGroup("game", 1);
+        SkeletonDataLoaderParameter parameter = new SkeletonDataLoaderParameter(DATA_PATH + "/spine/pinata-punch.atlas");
+        assetGroupManager.add("game", DATA_PATH + "/spine/donkey.json", SkeletonData.class, parameter);
+        assetGroupManager.add("game", DATA_PATH + "/spine/player.json", SkeletonData.class, parameter);
 
-        assetManager.load(DATA_PATH + "/gfx/white.png", Pixmap.class);
+        ObjectSet<String> packedRegions = readPackedRegions();
+        if (packedRegions.size > 0) {
+            assetGroupManager.add("game", PACKED_ATLAS_PATH, TextureAtlas.class);
+        }
+        
+        runtimePackFiles.clear();
+        if (!packedRegions.contains("white")) {
+            assetGroupManager.add("game", DATA_PATH + "/gfx/white.png", Pixmap.class);
+            runtimePackFiles.add(DATA_PATH + "/gfx/white.png");
+            assetLedger.markIntermediate(DATA_PATH + "/gfx/white.png");
+        }
         
-        assetManager.load(DATA_PATH + "/sfx/hit.wav", Sound.class);
-        assetManager.load(DATA_PATH + "/sfx/punch.wav", Sound.class);
-        assetManager.load(DATA_PATH + "/sfx/swoosh.wav", Sound.class);
+        assetGroupManager.add("game", SOUND_HIT, Sound.class);
+        assetGroupManager.add("game", SOUND_SWOOSH, Sound.class);
         
         ParticleEffectParameter partParam = new ParticleEffectParameter();
         partParam.atlasFile = DATA_PATH + "/spine/pinata-punch.atlas";
-        assetManager.load(DATA_PATH + "/particles/confetti.p", ParticleEffect.class, partParam);
+        assetGroupManager.add("game", EFFECT_CONFETTI, ParticleEffect.class, partParam);
         
         for (String directory : imagePacks.keys()) {
             FileHandle folder = Gdx.files.local(directory);
             for (FileHandle file : folder.list()) {
-                assetManager.load(file.path(), Pixmap.class);
                 imagePacks.get(directory).add(file.nameWithoutExtension());
+                
+                if (!packedRegions.contains(file.nameWithoutExtension())) {
+                    assetGroupManager.add("game", file.path(), Pixmap.class);
+                    runtimePackFiles.add(file.path());
+                    assetLedger.markIntermediate(file.path());
+                }
+            }
+        }
+        
+        //enemy types that appear later in a run are only requested by GameState shortly before they are needed
+        assetGroupManager.addGroup("enemy-hat", 2);
+        assetGroupManager.add("enemy-hat", DATA_PATH + "/spine/hat.json", SkeletonData.class, parameter);
+        
+        assetGroupManager.addGroup("enemy-spike", 3);
+        assetGroupManager.add("enemy-spike", DATA_PATH + "/spine/spike.json", SkeletonData.class, parameter);
+        
+        assetGroupManager.request("menu");
+        assetGroupManager.request("game");
+    }
+    
+    private void packImages() {
+        if (assetManager.isLoaded(PACKED_ATLAS_PATH)) {
+            packedAtlas = assetManager.get(PACKED_ATLAS_PATH, TextureAtlas.class);
+        }
+        
+        //only user supplied images that the packImages task hasn't seen are packed at runtime
+        if (runtimePackFiles.size > 0) {
+            for (String path : runtimePackFiles) {
+                FileHandle file = Gdx.files.local(path);
+                pixmapPacker.pack(file.nameWithoutExtension(), assetManager.get(path, Pixmap.class));
+            }
+            
+            atlas = pixmapPacker.generateTextureAtlas(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear, false);
+        }
+        
+        assetLedger.releaseIntermediates();
+        Gdx.app.log(Core.class.getName(), runtimePackFiles.size + " images packed at runtime");
+    }
+    
+    private ObjectSet<String> readPackedRegions() {
+        ObjectSet<String> returnValue = new ObjectSet<String>();
+        FileHandle packFile = Gdx.files.local(PACKED_ATLAS_PATH);
+        if (packFile.exists()) {
+            TextureAtlasData data = new TextureAtlasData(packFile, packFile.parent(), false);
+            for (TextureAtlasData.Region region : data.getRegions()) {
+                returnValue.add(region.name);
             }
         }
+        return returnValue;
     }
 
     @Override
@@ -199,7 +388,11 @@ public class Core extends ApplicationAdapter {
 
     @Override
     public void resize(int width, int height) {
-        stateManager.resize(width, height);
+        if (simulationThread != null) {
+            simulationThread.resize(width, height);
+        } else {
+            stateManager.resize(width, height);
+        }
     }
     
     public AssetManager getAssetManager() {
@@ -222,6 +415,123 @@ public class Core extends ApplicationAdapter {
         this.atlas = atlas;
     }
 
+    public TextureAtlas getPackedAtlas() {
+        return packedAtlas;
+    }
+
+    public void setPackedAtlas(TextureAtlas packedAtlas) {
+        this.packedAtlas = packedAtlas;
+    }
+    
+    public AtlasRegion findRegion(String name) {
+        AtlasRegion region = null;
+        if (packedAtlas != null) {
+            region = packedAtlas.findRegion(name);
+        }
+        if (region == null && atlas != null) {
+            region = atlas.findRegion(name);
+        }
+        return region;
+    }
+
+    public Array<String> getRuntimePackFiles() {
+        return runtimePackFiles;
+    }
+
+    public AssetLedger getAssetLedger() {
+        return assetLedger;
+    }
+
+    public SaveStore getSaveStore() {
+        return saveStore;
+    }
+
+    public AssetGroupManager getAssetGroupManager() {
+        return assetGroupManager;
+    }
+
+    public SoundManager getSoundManager() {
+        return soundManager;
+    }
+
+    public GameEventQueue getEventQueue() {
+        return eventQueue;
+    }
+
+    public HitTester getHitTester() {
+        return hitTester;
+    }
+
+    public EffectManager getEffectManager() {
+        return effectManager;
+    }
+
+    public SpriteBatch getSpriteBatch() {
+        if (simulationThread != null) {
+            return simulationThread.getRecordingBatch();
+        }
+        return spriteBatch;
+    }
+    
+    public void setInputProcessor(InputProcessor inputProcessor) {
+        if (simulationThread != null) {
+            simulationThread.getInputProcessor().setProcessor(inputProcessor);
+            Gdx.input.setInputProcessor(simulationThread.getInputProcessor());
+        } else {
+            Gdx.input.setInputProcessor(inputProcessor);
+        }
+    }
+    
+    //queued input is handled after the fact, so a key press is timed from when it was queued
+    public long getInputTime() {
+        if (simulationThread != null) {
+            return simulationThread.getInputProcessor().getEventTime();
+        }
+        return TimeUtils.nanoTime();
+    }
+    
+    public void clearScreen(SpriteBatch spriteBatch, float r, float g, float b) {
+        if (spriteBatch instanceof RecordingBatch) {
+            ((RecordingBatch) spriteBatch).getSnapshot().clearScreen(r, g, b, 1.0f);
+        } else {
+            Gdx.gl.glClearColor(r, g, b, 1.0f);
+            Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        }
+    }
+    
+    public boolean isSimulationThreaded() {
+        return simulationThreaded;
+    }
+    
+    //has to be set before create, data.json can turn it on as well
+    public void setSimulationThreaded(boolean simulationThreaded) {
+        this.simulationThreaded = simulationThreaded;
+    }
+    
+    public String getStartState() {
+        return startState;
+    }
+    
+    public void setStartState(String startState) {
+        this.startState = startState;
+    }
+    
+    public SimulationThread getSimulationThread() {
+        return simulationThread;
+    }
+
+    public RenderStats getRenderStats() {
+        return renderStats;
+    }
+
+    public LatencyStats getLatencyStats() {
+        return latencyStats;
+    }
+
+    public JsonValue getData() {
+        return data;
+    }
+
     public SkeletonRenderer getSkeletonRenderer() {
         return skeletonRenderer;
     }
@@ -0,0 +1,142 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+public class EffectManager {
+    private static final int POOL_INITIAL_CAPACITY = 8;
+    private static final int POOL_MAX = 64;
+    private final AssetManager assetManager;
+    private final ObjectMap<String, ParticleEffectPool> pools;
+    private final Array<PooledEffect> effects;
+    private int particleCap;
+    private int liveParticles;
+    private int reservedParticles;
+    private int droppedCount;
+
+    public EffectManager(AssetManager assetManager, int particleCap) {
+        this.assetManager = assetManager;
+        this.particleCap = particleCap;
+        pools = new ObjectMap<String, ParticleEffectPool>();
+        effects = new Array<PooledEffect>();
+    }
+
+    //an effect reserves as many particles as its emitters could ever have alive, so the cap holds even for effects spawned in the same tick
+    public PooledEffect spawn(String fileName, float x, float y) {
+        ParticleEffect template = assetManager.get(fileName, ParticleEffect.class);
+        int maxParticles = getMaxParticles(template);
+        if (reservedParticles + maxParticles > particleCap) {
+            droppedCount++;
+            return null;
+        }
+
+        ParticleEffectPool pool = pools.get(fileName);
+        if (pool == null) {
+            pool = new ParticleEffectPool(template, POOL_INITIAL_CAPACITY, POOL_MAX);
+            pools.put(fileName, pool);
+        }
+
+        PooledEffect effect = pool.obtain();
+        reservedParticles += maxParticles;
+        effect.setPosition(x, y);
+        effects.add(effect);
+        return effect;
+    }
+
+    public void act(float delta) {
+        liveParticles = 0;
+
+        for (int i = effects.size - 1; i >= 0; i--) {
+            PooledEffect effect = effects.get(i);
+            effect.update(delta);
+
+            if (effect.isComplete()) {
+                effects.removeIndex(i);
+                reservedParticles -= getMaxParticles(effect);
+                effect.free();
+            } else {
+                Array<ParticleEmitter> emitters = effect.getEmitters();
+                for (int j = 0; j < emitters.size; j++) {
+                    liveParticles += emitters.get(j).getActiveCount();
+                }
+            }
+        }
+    }
+
+    public void draw(Batch batch) {
+        for (int i = 0; i < effects.size; i++) {
+            effects.get(i).draw(batch);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < effects.size; i++) {
+            effects.get(i).free();
+        }
+        effects.clear();
+        liveParticles = 0;
+        reservedParticles = 0;
+    }
+
+    private int getMaxParticles(ParticleEffect effect) {
+        int count = 0;
+        Array<ParticleEmitter> emitters = effect.getEmitters();
+        for (int i = 0; i < emitters.size; i++) {
+            count += emitters.get(i).getMaxParticleCount();
+        }
+        return count;
+    }
+
+    public int getEffectCount() {
+        return effects.size;
+    }
+
+    public int getLiveParticles() {
+        return liveParticles;
+    }
+
+    public int getReservedParticles() {
+        return reservedParticles;
+    }
+
+    public int getParticleCap() {
+        return particleCap;
+    }
+
+    public void setParticleCap(int particleCap) {
+        this.particleCap = particleCap;
+    }
+
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+}
@@ -23,12 +23,18 @@
  */
 package com.ray3k.pinatapunch;
 
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 
 public abstract class Entity {
+    public static final int COLLISION_PLAYER = 1;
+    public static final int COLLISION_ENEMY = 1 << 1;
+    public static final int COLLISION_PICKUP = 1 << 2;
+    public static final int COLLISION_EFFECT = 1 << 3;
+    public static final int COLLISION_ALL = -1;
     private static final Vector2 temp = new Vector2();
     private final Vector2 position;
     private final Vector2 speed;
@@ -36,6 +42,8 @@ public abstract class Entity {
     private final Vector2 scale;
     private float rotation;
     private TextureRegion textureRegion;
+    private Texture texture;
+    private float cullRadius;
     private boolean destroyed;
     private final EntityManager manager;
     private final Core core;
@@ -44,6 +52,10 @@ public abstract class Entity {
     private final Rectangle collisionBox;
     private final Vector2 collisionBoxPosition;
     private boolean checkingCollisions;
+    private int collisionCategory;
+    private int collisionMask;
+    private long handle;
+    private int sequence;
     private static Vector2 temp1 = new Vector2();
     private static Vector2 temp2 = new Vector2();
 
@@ -67,6 +79,8 @@ public abstract class Entity {
         collisionBoxPosition.x = 0;
         collisionBoxPosition.y = 0;
         checkingCollisions = false;
+        collisionCategory = COLLISION_ALL;
+        collisionMask = COLLISION_ALL;
         
         create();
     }
@@ -90,6 +104,11 @@ public abstract class Entity {
         }
     }
 
+    public void revive() {
+        destroyed = false;
+        speed.setZero();
+    }
+
     public Vector2 getPosition() {
         return position.cpy();
     }
@@ -230,6 +249,23 @@ public abstract class Entity {
         return destroyed;
     }
 
+    //refer to other entities through their handle, a handle stops resolving in EntityManager.get once the entity is gone
+    public long getHandle() {
+        return handle;
+    }
+
+    void setHandle(long handle) {
+        this.handle = handle;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    void setSequence(int sequence) {
+        this.sequence = sequence;
+    }
+
     public EntityManager getManager() {
         return manager;
     }
@@ -242,6 +278,41 @@ public abstract class Entity {
         this.textureRegion = textureRegion;
     }
 
+    public Texture getTexture() {
+        if (textureRegion != null) {
+            return textureRegion.getTexture();
+        }
+        return texture;
+    }
+
+    public void setTexture(Texture texture) {
+        this.texture = texture;
+    }
+
+    public float getCullRadius() {
+        return cullRadius;
+    }
+
+    public void setCullRadius(float cullRadius) {
+        this.cullRadius = cullRadius;
+    }
+
+    public boolean isVisible(Rectangle view) {
+        if (cullRadius <= 0) {
+            return true;
+        }
+        return getX() + cullRadius >= view.x && getX() - cullRadius <= view.x + view.width && getY() + cullRadius >= view.y && getY() - cullRadius <= view.y + view.height;
+    }
+
+    //entities without a cull radius have no known bounds, so they overlap everything
+    public boolean boundsOverlap(Entity other) {
+        if (cullRadius <= 0 || other.cullRadius <= 0) {
+            return true;
+        }
+        float distance = cullRadius + other.cullRadius;
+        return Math.abs(getX() - other.getX()) < distance && Math.abs(getY() - other.getY()) < distance;
+    }
+
     public Core getCore() {
         return core;
     }
@@ -291,6 +362,27 @@ public abstract class Entity {
         this.checkingCollisions = checkingCollisions;
     }
 
+    public int getCollisionCategory() {
+        return collisionCategory;
+    }
+
+    //the categories this entity belongs to, entities that don't set one match every mask
+    public void setCollisionCategory(int collisionCategory) {
+        this.collisionCategory = collisionCategory;
+    }
+
+    public int getCollisionMask() {
+        return collisionMask;
+    }
+
+    public void setCollisionMask(int collisionMask) {
+        this.collisionMask = collisionMask;
+    }
+
+    public boolean collidesWith(Entity other) {
+        return (collisionMask & other.collisionCategory) != 0;
+    }
+
     public void setCollisionBoxX(float collisionBoxX) {
         collisionBoxPosition.x = collisionBoxX;
     }
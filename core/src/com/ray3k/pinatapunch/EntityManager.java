@@ -24,27 +24,133 @@
 
 package com.ray3k.pinatapunch;
 
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
 import java.util.Comparator;
 import java.util.Iterator;
 
 public class EntityManager {
+    public static final long NO_HANDLE = -1L;
+    private static final int GROUP_LOOKBACK = 256;
     private final Array<Entity> entities;
+    private Entity[] slots;
+    private int[] generations;
+    private int slotCount;
+    private final IntArray freeSlots;
+    private final Array<Entity> drawOrder;
+    private int sequenceCount;
+    private final Comparator<Entity> drawComparator;
+    private int drawnCount;
+    private int culledCount;
+    private int pairTestCount;
+    private int prunedPairCount;
+    private int colliderCount;
     
     public EntityManager() {
         entities = new Array<Entity>();
+        drawOrder = new Array<Entity>();
+        slots = new Entity[64];
+        generations = new int[64];
+        freeSlots = new IntArray();
+        
+        //depth decides what is in front, within a depth layer entities are drawn in the order they were added
+        drawComparator = new Comparator<Entity>() {
+            @Override
+            public int compare(Entity o1, Entity o2) {
+                if (o1.getDepth() != o2.getDepth()) {
+                    return o2.getDepth() - o1.getDepth();
+                }
+                return o1.getSequence() - o2.getSequence();
+            }
+        };
     }
     
     public void addEntity(Entity entity) {
         entities.add(entity);
+        entity.setHandle(allocateHandle(entity));
+        entity.setSequence(sequenceCount++);
+    }
+    
+    public void bringToFront(Entity entity) {
+        entity.setSequence(sequenceCount++);
+    }
+    
+    public void clear() {
+        entities.clear();
+        freeSlots.clear();
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = null;
+            generations[i]++;
+            freeSlots.add(i);
+        }
+    }
+    
+    //a handle packs the slot index into the low int and the slot's generation into the high int
+    private long allocateHandle(Entity entity) {
+        int index;
+        if (freeSlots.size > 0) {
+            index = freeSlots.pop();
+        } else {
+            if (slotCount == slots.length) {
+                Entity[] newSlots = new Entity[slotCount * 2];
+                System.arraycopy(slots, 0, newSlots, 0, slotCount);
+                slots = newSlots;
+                int[] newGenerations = new int[slotCount * 2];
+                System.arraycopy(generations, 0, newGenerations, 0, slotCount);
+                generations = newGenerations;
+            }
+            index = slotCount++;
+        }
+        
+        slots[index] = entity;
+        return (long) generations[index] << 32 | index;
+    }
+    
+    //the slot moves to the next generation, so handles to the old entity stop resolving even once the slot is reused
+    private void freeHandle(Entity entity) {
+        int index = (int) entity.getHandle();
+        if (index >= 0 && index < slotCount && slots[index] == entity) {
+            slots[index] = null;
+            generations[index]++;
+            freeSlots.add(index);
+        }
+        entity.setHandle(NO_HANDLE);
+    }
+    
+    public Entity get(long handle) {
+        int index = (int) handle;
+        if (index < 0 || index >= slotCount || generations[index] != (int) (handle >>> 32)) {
+            return null;
+        }
+        
+        Entity entity = slots[index];
+        if (entity == null || entity.isDestroyed()) {
+            return null;
+        }
+        return entity;
     }
     
     public Array<Entity> getEntities() {
         return new Array<Entity>(entities);
     }
     
+    public int getEntityCount() {
+        return entities.size;
+    }
+    
     public void act(float delta) {
+        pairTestCount = 0;
+        prunedPairCount = 0;
+        colliderCount = 0;
+        for (int i = 0; i < entities.size; i++) {
+            if (entities.get(i).isCheckingCollisions()) {
+                colliderCount++;
+            }
+        }
+        
         Iterator<Entity> iter = entities.iterator();
         while (iter.hasNext()) {
             Entity entity = iter.next();
@@ -58,20 +164,12 @@ public class EntityManager {
                 entity.getCollisionBox().setPosition(entity.getX() + entity.getCollisionBoxX(), entity.getY() + entity.getCollisionBoxY());
                 entity.act(delta);
                 
-                for (int i = 0; i < entities.size ; i++) {
-                    if (!entity.isDestroyed() && entity.isCheckingCollisions()) {
-                        Entity other = entities.get(i);
-                        if (other.isCheckingCollisions()) {
-                            if (entity.getCollisionBox().overlaps(other.getCollisionBox())) {
-                                entity.collision(other);
-                            }
-                        }
-                    } else {
-                        break;
-                    }
+                if (!entity.isDestroyed() && entity.isCheckingCollisions()) {
+                    checkCollisions(entity);
                 }
             } else {
                 iter.remove();
+                freeHandle(entity);
             }
         }
         
@@ -83,22 +181,102 @@ public class EntityManager {
         }
     }
     
-    public void draw(SpriteBatch spriteBatch, float delta) {
-        entities.sort(new Comparator<Entity>() {
-            @Override
-            public int compare(Entity o1, Entity o2) {
-                return o2.getDepth() - o1.getDepth();
+    //an entity is only told about the categories in its mask, so pairs it wouldn't react to cost no geometry test
+    private void checkCollisions(Entity entity) {
+        if (entity.getCollisionMask() == 0) {
+            prunedPairCount += colliderCount - 1;
+            return;
+        }
+        
+        for (int i = 0; i < entities.size; i++) {
+            Entity other = entities.get(i);
+            if (other == entity || !other.isCheckingCollisions() || other.isDestroyed()) {
+                continue;
             }
-        });
+            
+            if (!entity.collidesWith(other)) {
+                prunedPairCount++;
+                continue;
+            }
+            
+            pairTestCount++;
+            if (entity.getCollisionBox().overlaps(other.getCollisionBox())) {
+                entity.collision(other);
+                if (entity.isDestroyed()) {
+                    break;
+                }
+            }
+        }
+    }
+    
+    public void draw(SpriteBatch spriteBatch, float delta) {
+        draw(spriteBatch, delta, null);
+    }
+    
+    public void draw(SpriteBatch spriteBatch, float delta, Rectangle view) {
+        entities.sort(drawComparator);
+        drawnCount = 0;
+        culledCount = 0;
         
-        for (Entity entity : entities) {
+        drawOrder.clear();
+        for (int i = 0; i < entities.size; i++) {
+            Entity entity = entities.get(i);
             if (!entity.isDestroyed()) {
-                if (entity.getTextureRegion() != null) {
-                    spriteBatch.draw(entity.getTextureRegion(), entity.getX() + entity.getXspeed() * delta, entity.getY() + entity.getYspeed() * delta, entity.getOffsetX(), entity.getOffsetY(), entity.getTextureRegion().getRegionWidth(), entity.getTextureRegion().getRegionHeight(), entity.getScaleX(), entity.getScaleY(), entity.getRotation());
+                if (view != null && !entity.isVisible(view)) {
+                    culledCount++;
+                } else {
+                    addToDrawOrder(entity);
+                }
+            }
+        }
+        
+        for (int i = 0; i < drawOrder.size; i++) {
+            Entity entity = drawOrder.get(i);
+            if (entity.getTextureRegion() != null) {
+                spriteBatch.draw(entity.getTextureRegion(), entity.getX() + entity.getXspeed() * delta, entity.getY() + entity.getYspeed() * delta, entity.getOffsetX(), entity.getOffsetY(), entity.getTextureRegion().getRegionWidth(), entity.getTextureRegion().getRegionHeight(), entity.getScaleX(), entity.getScaleY(), entity.getRotation());
+            }
+            
+            entity.draw(spriteBatch, delta);
+            drawnCount++;
+        }
+    }
+    
+    public int getDrawnCount() {
+        return drawnCount;
+    }
+    
+    public int getCulledCount() {
+        return culledCount;
+    }
+    
+    public int getPairTestCount() {
+        return pairTestCount;
+    }
+    
+    public int getPrunedPairCount() {
+        return prunedPairCount;
+    }
+    
+    //an entity joins the nearest earlier entity drawn from its texture when it overlaps nothing drawn between them,
+    //so the batch flushes less while overlapping entities keep their order
+    private void addToDrawOrder(Entity entity) {
+        int index = drawOrder.size;
+        Texture texture = entity.getTexture();
+        
+        if (texture != null) {
+            int stop = Math.max(0, drawOrder.size - GROUP_LOOKBACK);
+            for (int i = drawOrder.size - 1; i >= stop; i--) {
+                Entity other = drawOrder.get(i);
+                if (other.getDepth() != entity.getDepth() || other.getTexture() != texture && entity.boundsOverlap(other)) {
+                    break;
+                }
+                if (other.getTexture() == texture) {
+                    index = i + 1;
+                    break;
                 }
-                
-                entity.draw(spriteBatch, delta);
             }
         }
+        
+        drawOrder.insert(index, entity);
     }
 }
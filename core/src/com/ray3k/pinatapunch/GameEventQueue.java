@@ -0,0 +1,210 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.ray3k.pinatapunch.SoundManager.SoundHandle;
+
+public class GameEventQueue {
+    private static final Type[] TYPES = Type.values();
+    private final Array<GameEventListener> listeners;
+    private final IntArray listenerMasks;
+    private int[] types;
+    private int[] ints;
+    private float[] floats;
+    private Object[] objects;
+    private int size;
+    private int batchSize;
+    private boolean flushing;
+    private int dispatchIndex;
+    private int postedCount;
+    private int batchCount;
+    
+    public static enum Type {
+        SCORE, SOUND, SPAWN, STATE_CHANGE;
+        
+        private int getBit() {
+            return 1 << ordinal();
+        }
+    }
+    
+    //listeners get every event of a tick in one call and read them by index, so nothing is allocated per event
+    public interface GameEventListener {
+        public void handle(GameEventQueue events);
+    }
+
+    public GameEventQueue(int initialCapacity) {
+        listeners = new Array<GameEventListener>();
+        listenerMasks = new IntArray();
+        types = new int[initialCapacity];
+        ints = new int[initialCapacity];
+        floats = new float[initialCapacity];
+        objects = new Object[initialCapacity];
+        size = 0;
+    }
+    
+    public void subscribe(GameEventListener listener, Type... types) {
+        int mask = 0;
+        for (Type type : types) {
+            mask |= type.getBit();
+        }
+        listeners.add(listener);
+        listenerMasks.add(mask);
+    }
+    
+    public void unsubscribe(GameEventListener listener) {
+        int index = listeners.indexOf(listener, true);
+        if (index != -1) {
+            listeners.removeIndex(index);
+            listenerMasks.removeIndex(index);
+            
+            //a listener can leave while the batch is handed out, for example when it changes state
+            if (flushing && index <= dispatchIndex) {
+                dispatchIndex--;
+            }
+        }
+    }
+    
+    public void postScore(int points) {
+        post(Type.SCORE, points, 0.0f, null);
+    }
+    
+    public void postSound(SoundHandle handle, float volume) {
+        post(Type.SOUND, 0, volume, handle);
+    }
+    
+    public void postSpawn(boolean spawnEnemies) {
+        post(Type.SPAWN, spawnEnemies ? 1 : 0, 0.0f, null);
+    }
+    
+    public void postStateChange(String state) {
+        post(Type.STATE_CHANGE, 0, 0.0f, state);
+    }
+    
+    private void post(Type type, int intValue, float floatValue, Object objectValue) {
+        if (size == types.length) {
+            resize(Math.max(16, size * 2));
+        }
+        
+        types[size] = type.ordinal();
+        ints[size] = intValue;
+        floats[size] = floatValue;
+        objects[size] = objectValue;
+        size++;
+        postedCount++;
+    }
+    
+    //events posted while listeners run are kept for the next flush
+    public void flush() {
+        if (size == 0 || flushing) {
+            return;
+        }
+        
+        flushing = true;
+        batchSize = size;
+        int present = 0;
+        for (int i = 0; i < batchSize; i++) {
+            present |= 1 << types[i];
+        }
+        
+        for (dispatchIndex = 0; dispatchIndex < listeners.size; dispatchIndex++) {
+            if ((listenerMasks.get(dispatchIndex) & present) != 0) {
+                listeners.get(dispatchIndex).handle(this);
+            }
+        }
+        
+        int remaining = size - batchSize;
+        System.arraycopy(types, batchSize, types, 0, remaining);
+        System.arraycopy(ints, batchSize, ints, 0, remaining);
+        System.arraycopy(floats, batchSize, floats, 0, remaining);
+        System.arraycopy(objects, batchSize, objects, 0, remaining);
+        for (int i = remaining; i < size; i++) {
+            objects[i] = null;
+        }
+        size = remaining;
+        batchSize = 0;
+        batchCount++;
+        flushing = false;
+    }
+    
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            objects[i] = null;
+        }
+        size = 0;
+    }
+    
+    private void resize(int capacity) {
+        int[] newTypes = new int[capacity];
+        System.arraycopy(types, 0, newTypes, 0, size);
+        types = newTypes;
+        int[] newInts = new int[capacity];
+        System.arraycopy(ints, 0, newInts, 0, size);
+        ints = newInts;
+        float[] newFloats = new float[capacity];
+        System.arraycopy(floats, 0, newFloats, 0, size);
+        floats = newFloats;
+        Object[] newObjects = new Object[capacity];
+        System.arraycopy(objects, 0, newObjects, 0, size);
+        objects = newObjects;
+    }
+    
+    public int getSize() {
+        return batchSize;
+    }
+    
+    public Type getType(int index) {
+        return TYPES[types[index]];
+    }
+    
+    public int getInt(int index) {
+        return ints[index];
+    }
+    
+    public float getFloat(int index) {
+        return floats[index];
+    }
+    
+    public Object getObject(int index) {
+        return objects[index];
+    }
+    
+    public int getPendingCount() {
+        return size;
+    }
+    
+    public int getPostedCount() {
+        return postedCount;
+    }
+    
+    public int getBatchCount() {
+        return batchCount;
+    }
+    
+    public void resetCounters() {
+        postedCount = 0;
+        batchCount = 0;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.esotericsoftware.spine.SkeletonBounds;
+
+public class HitTester {
+    private int aabbRejectCount;
+    private int polygonTestCount;
+
+    public boolean overlaps(SkeletonBounds bounds, SkeletonBounds other) {
+        if (!bounds.aabbIntersectsSkeleton(other)) {
+            aabbRejectCount++;
+            return false;
+        }
+        
+        polygonTestCount++;
+        return polygonsOverlap(bounds.getPolygons(), other.getPolygons());
+    }
+
+    public static boolean hasPolygons(SkeletonBounds bounds) {
+        return bounds.getPolygons().size > 0;
+    }
+
+    private boolean polygonsOverlap(Array<FloatArray> polygons, Array<FloatArray> otherPolygons) {
+        for (int i = 0; i < polygons.size; i++) {
+            for (int j = 0; j < otherPolygons.size; j++) {
+                if (polygonsOverlap(polygons.get(i), otherPolygons.get(j))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    //polygons overlap when any edges cross or when one lies entirely inside the other, so concave outlines work too
+    private boolean polygonsOverlap(FloatArray polygon, FloatArray other) {
+        float[] vertices = polygon.items;
+        float[] otherVertices = other.items;
+        int count = polygon.size;
+        int otherCount = other.size;
+        
+        for (int i = 0; i < count; i += 2) {
+            float x1 = vertices[i];
+            float y1 = vertices[i + 1];
+            float x2 = vertices[(i + 2) % count];
+            float y2 = vertices[(i + 3) % count];
+            
+            for (int j = 0; j < otherCount; j += 2) {
+                if (segmentsIntersect(x1, y1, x2, y2, otherVertices[j], otherVertices[j + 1], otherVertices[(j + 2) % otherCount], otherVertices[(j + 3) % otherCount])) {
+                    return true;
+                }
+            }
+        }
+        
+        return containsPoint(polygon, otherVertices[0], otherVertices[1]) || containsPoint(other, vertices[0], vertices[1]);
+    }
+
+    private boolean segmentsIntersect(float x1, float y1, float x2, float y2, float x3, float y3, float x4, float y4) {
+        float d1 = cross(x3, y3, x4, y4, x1, y1);
+        float d2 = cross(x3, y3, x4, y4, x2, y2);
+        float d3 = cross(x1, y1, x2, y2, x3, y3);
+        float d4 = cross(x1, y1, x2, y2, x4, y4);
+        return (d1 > 0 != d2 > 0) && (d3 > 0 != d4 > 0);
+    }
+
+    private float cross(float ax, float ay, float bx, float by, float px, float py) {
+        return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+    }
+
+    private boolean containsPoint(FloatArray polygon, float x, float y) {
+        float[] vertices = polygon.items;
+        int count = polygon.size;
+        boolean inside = false;
+        
+        for (int i = 0, j = count - 2; i < count; j = i, i += 2) {
+            float yi = vertices[i + 1];
+            float yj = vertices[j + 1];
+            if ((yi < y && yj >= y || yj < y && yi >= y) && vertices[i] + (y - yi) / (yj - yi) * (vertices[j] - vertices[i]) < x) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    public int getAabbRejectCount() {
+        return aabbRejectCount;
+    }
+
+    public int getPolygonTestCount() {
+        return polygonTestCount;
+    }
+
+    public void resetCounters() {
+        aabbRejectCount = 0;
+        polygonTestCount = 0;
+    }
+}
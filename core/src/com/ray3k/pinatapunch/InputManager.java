@@ -27,10 +27,21 @@ import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.utils.Array;
 
 public class InputManager implements InputProcessor {
+    private static final int EVENT_CAPACITY = 32;
+    private final Core core;
     private final Array<KeyActionListener> flapListeners;
+    private final int[] eventKeys;
+    private final long[] eventTimes;
+    //single producer, single consumer: only keyDown advances writeCount and only the reader advances readCount
+    private volatile long writeCount;
+    private volatile long readCount;
+    private int droppedCount;
 
-    public InputManager() {
+    public InputManager(Core core) {
+        this.core = core;
         flapListeners = new Array<KeyActionListener>();
+        eventKeys = new int[EVENT_CAPACITY];
+        eventTimes = new long[EVENT_CAPACITY];
     }
     
     public interface KeyActionListener {
@@ -49,8 +60,52 @@ public class InputManager implements InputProcessor {
         flapListeners.clear();
     }
 
+    public boolean hasEvents() {
+        return readCount < writeCount;
+    }
+    
+    public int getEventCount() {
+        return (int) (writeCount - readCount);
+    }
+    
+    public int getEventKey() {
+        return eventKeys[(int) (readCount % EVENT_CAPACITY)];
+    }
+    
+    public long getEventTime() {
+        return eventTimes[(int) (readCount % EVENT_CAPACITY)];
+    }
+    
+    public void removeEvent() {
+        if (readCount < writeCount) {
+            readCount++;
+        }
+    }
+    
+    public void clearEvents() {
+        readCount = writeCount;
+    }
+    
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+    
+    private void addEvent(int keycode) {
+        long write = writeCount;
+        if (write - readCount >= EVENT_CAPACITY) {
+            droppedCount++;
+        } else {
+            int index = (int) (write % EVENT_CAPACITY);
+            eventKeys[index] = keycode;
+            eventTimes[index] = core.getInputTime();
+            writeCount = write + 1;
+        }
+    }
+
     @Override
     public boolean keyDown(int keycode) {
+        addEvent(keycode);
+        
         for (KeyActionListener flapListener : flapListeners) {
             flapListener.keyPressed(keycode);
         }
@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.TimeUtils;
+import java.util.Arrays;
+
+public class LatencyStats {
+    private static final int SAMPLE_CAPACITY = 1024;
+    private final long[][] samples;
+    private final int[] sampleCounts;
+    private final long[] sorted;
+    private boolean pending;
+    private long pendingKeyTime;
+    private boolean pendingDrawn;
+    private boolean pendingSound;
+
+    //each stage is measured from the key press that started the action
+    public static enum Stage {
+        CONSUME, DRAW, SOUND
+    }
+
+    public LatencyStats() {
+        samples = new long[Stage.values().length][SAMPLE_CAPACITY];
+        sampleCounts = new int[Stage.values().length];
+        sorted = new long[SAMPLE_CAPACITY];
+    }
+
+    public void actionStarted(long keyTime) {
+        pending = true;
+        pendingKeyTime = keyTime;
+        pendingDrawn = false;
+        pendingSound = false;
+        addSample(Stage.CONSUME, TimeUtils.nanoTime() - keyTime);
+    }
+
+    public void actionDrawn() {
+        if (pending && !pendingDrawn) {
+            pendingDrawn = true;
+            addSample(Stage.DRAW, TimeUtils.nanoTime() - pendingKeyTime);
+        }
+    }
+
+    public void soundTriggered() {
+        if (pending && !pendingSound) {
+            pendingSound = true;
+            addSample(Stage.SOUND, TimeUtils.nanoTime() - pendingKeyTime);
+        }
+    }
+
+    private void addSample(Stage stage, long latency) {
+        int index = stage.ordinal();
+        samples[index][sampleCounts[index] % SAMPLE_CAPACITY] = latency;
+        sampleCounts[index]++;
+    }
+
+    public int getCount(Stage stage) {
+        return sampleCounts[stage.ordinal()];
+    }
+
+    public long getPercentile(Stage stage, float percentile) {
+        int index = stage.ordinal();
+        int size = Math.min(sampleCounts[index], SAMPLE_CAPACITY);
+        if (size == 0) {
+            return 0;
+        }
+
+        System.arraycopy(samples[index], 0, sorted, 0, size);
+        Arrays.sort(sorted, 0, size);
+        return sorted[Math.min(size - 1, (int) (percentile * size))];
+    }
+
+    public void reset() {
+        Arrays.fill(sampleCounts, 0);
+        pending = false;
+    }
+
+    public void log() {
+        for (Stage stage : Stage.values()) {
+            if (getCount(stage) > 0) {
+                Gdx.app.log(LatencyStats.class.getName(), "Key to " + stage.name().toLowerCase() + ": p50 " + getPercentile(stage, .5f) / 1000 + "us, p95 " + getPercentile(stage, .95f) / 1000 + "us, p99 " + getPercentile(stage, .99f) / 1000 + "us over " + getCount(stage) + " actions");
+            }
+        }
+    }
+}
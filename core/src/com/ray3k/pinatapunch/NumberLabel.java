@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.StringBuilder;
+
+public class NumberLabel extends Label {
+    private final int prefixLength;
+    private int value;
+    private int shownValue;
+    private int shownDigits;
+
+    public NumberLabel(int value, Skin skin) {
+        this("", value, skin, "default");
+    }
+
+    public NumberLabel(int value, Skin skin, String styleName) {
+        this("", value, skin, styleName);
+    }
+
+    public NumberLabel(CharSequence prefix, int value, Skin skin) {
+        this(prefix, value, skin, "default");
+    }
+
+    public NumberLabel(CharSequence prefix, int value, Skin skin, String styleName) {
+        super(prefix, skin, styleName);
+        prefixLength = prefix.length();
+        this.value = value;
+        shownDigits = -1;
+        refresh();
+    }
+
+    //the text is only rebuilt when the stage acts, so several changes in one tick cost a single update
+    public void setValue(int value) {
+        this.value = value;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        
+        if (value != shownValue) {
+            refresh();
+        }
+    }
+
+    private void refresh() {
+        StringBuilder text = getText();
+        text.setLength(prefixLength);
+        text.append(value);
+        
+        //the label's size only changes with the number of digits, otherwise the parent layout can stay as it is
+        int digits = text.length() - prefixLength;
+        if (digits != shownDigits) {
+            invalidateHierarchy();
+        } else {
+            invalidate();
+        }
+        
+        shownValue = value;
+        shownDigits = digits;
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+
+//a batch that turns every draw into vertices in a RenderSnapshot and never touches GL, so it can be used off the render thread
+public class RecordingBatch extends SpriteBatch {
+    private static final int SPRITE_SIZE = 20;
+    private final float[] sprite;
+    private RenderSnapshot snapshot;
+    private ShaderProgram shader;
+    private boolean recording;
+    private float x1, y1, x2, y2, x3, y3, x4, y4;
+
+    //has to be constructed on the render thread because SpriteBatch sets up a mesh and shader it won't use
+    public RecordingBatch() {
+        super(1);
+        sprite = new float[SPRITE_SIZE];
+    }
+
+    public RenderSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(RenderSnapshot snapshot) {
+        this.snapshot = snapshot;
+        
+        if (shader != null) {
+            snapshot.setShader(shader);
+        }
+    }
+
+    @Override
+    public void begin() {
+        if (recording) {
+            throw new IllegalStateException("RecordingBatch.end must be called before begin.");
+        }
+        recording = true;
+        snapshot.begin();
+    }
+
+    @Override
+    public void end() {
+        if (!recording) {
+            throw new IllegalStateException("RecordingBatch.begin must be called before end.");
+        }
+        recording = false;
+        snapshot.end();
+    }
+
+    @Override
+    public boolean isDrawing() {
+        return recording;
+    }
+
+    //draws are only merged when the snapshot is replayed
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void setProjectionMatrix(Matrix4 projection) {
+        super.setProjectionMatrix(projection);
+        snapshot.setProjectionMatrix(projection);
+    }
+
+    @Override
+    public void setTransformMatrix(Matrix4 transform) {
+        super.setTransformMatrix(transform);
+        snapshot.setTransformMatrix(transform);
+    }
+
+    @Override
+    public void setBlendFunction(int srcFunc, int dstFunc) {
+        if (srcFunc != getBlendSrcFunc() || dstFunc != getBlendDstFunc()) {
+            super.setBlendFunction(srcFunc, dstFunc);
+            snapshot.setBlendFunction(srcFunc, dstFunc);
+        }
+    }
+
+    @Override
+    public void enableBlending() {
+        if (!isBlendingEnabled()) {
+            super.enableBlending();
+            snapshot.setBlending(true);
+        }
+    }
+
+    @Override
+    public void disableBlending() {
+        if (isBlendingEnabled()) {
+            super.disableBlending();
+            snapshot.setBlending(false);
+        }
+    }
+
+    //the shader is only switched when the snapshot is replayed, SpriteBatch would bind it here
+    @Override
+    public void setShader(ShaderProgram shader) {
+        if (shader != this.shader) {
+            this.shader = shader;
+            snapshot.setShader(shader);
+        }
+    }
+
+    @Override
+    public ShaderProgram getShader() {
+        return shader;
+    }
+
+    @Override
+    public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+        checkRecording();
+        snapshot.draw(texture, spriteVertices, offset, count);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+        checkRecording();
+        float invTexWidth = 1.0f / texture.getWidth();
+        float invTexHeight = 1.0f / texture.getHeight();
+        float u = srcX * invTexWidth;
+        float v = (srcY + srcHeight) * invTexHeight;
+        float u2 = (srcX + srcWidth) * invTexWidth;
+        float v2 = srcY * invTexHeight;
+        
+        if (flipX) {
+            float temp = u;
+            u = u2;
+            u2 = temp;
+        }
+        
+        if (flipY) {
+            float temp = v;
+            v = v2;
+            v2 = temp;
+        }
+        
+        setCorners(x, y, originX, originY, width, height, scaleX, scaleY, rotation);
+        addSprite(texture, u, v, u, v2, u2, v2, u2, v);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+        draw(texture, x, y, 0.0f, 0.0f, width, height, 1.0f, 1.0f, 0.0f, srcX, srcY, srcWidth, srcHeight, flipX, flipY);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+        draw(texture, x, y, 0.0f, 0.0f, srcWidth, srcHeight, 1.0f, 1.0f, 0.0f, srcX, srcY, srcWidth, srcHeight, false, false);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, float u, float v, float u2, float v2) {
+        checkRecording();
+        setCorners(x, y, 0.0f, 0.0f, width, height, 1.0f, 1.0f, 0.0f);
+        addSprite(texture, u, v, u, v2, u2, v2, u2, v);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y) {
+        draw(texture, x, y, texture.getWidth(), texture.getHeight());
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height) {
+        draw(texture, x, y, width, height, 0.0f, 1.0f, 1.0f, 0.0f);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y) {
+        draw(region, x, y, region.getRegionWidth(), region.getRegionHeight());
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float width, float height) {
+        draw(region.getTexture(), x, y, width, height, region.getU(), region.getV2(), region.getU2(), region.getV());
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation) {
+        checkRecording();
+        setCorners(x, y, originX, originY, width, height, scaleX, scaleY, rotation);
+        addSprite(region.getTexture(), region.getU(), region.getV2(), region.getU(), region.getV(), region.getU2(), region.getV(), region.getU2(), region.getV2());
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, boolean clockwise) {
+        checkRecording();
+        setCorners(x, y, originX, originY, width, height, scaleX, scaleY, rotation);
+        
+        if (clockwise) {
+            addSprite(region.getTexture(), region.getU2(), region.getV2(), region.getU(), region.getV2(), region.getU(), region.getV(), region.getU2(), region.getV());
+        } else {
+            addSprite(region.getTexture(), region.getU(), region.getV(), region.getU2(), region.getV(), region.getU2(), region.getV2(), region.getU(), region.getV2());
+        }
+    }
+
+    @Override
+    public void draw(TextureRegion region, float width, float height, Affine2 transform) {
+        checkRecording();
+        x1 = transform.m02;
+        y1 = transform.m12;
+        x2 = transform.m01 * height + transform.m02;
+        y2 = transform.m11 * height + transform.m12;
+        x3 = transform.m00 * width + transform.m01 * height + transform.m02;
+        y3 = transform.m10 * width + transform.m11 * height + transform.m12;
+        x4 = transform.m00 * width + transform.m02;
+        y4 = transform.m10 * width + transform.m12;
+        addSprite(region.getTexture(), region.getU(), region.getV2(), region.getU(), region.getV(), region.getU2(), region.getV(), region.getU2(), region.getV2());
+    }
+
+    private void checkRecording() {
+        if (!recording) {
+            throw new IllegalStateException("RecordingBatch.begin must be called before draw.");
+        }
+    }
+
+    private void setCorners(float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation) {
+        float worldOriginX = x + originX;
+        float worldOriginY = y + originY;
+        float fx = -originX * scaleX;
+        float fy = -originY * scaleY;
+        float fx2 = (width - originX) * scaleX;
+        float fy2 = (height - originY) * scaleY;
+        
+        if (rotation != 0) {
+            float cos = MathUtils.cosDeg(rotation);
+            float sin = MathUtils.sinDeg(rotation);
+            
+            x1 = cos * fx - sin * fy;
+            y1 = sin * fx + cos * fy;
+            x2 = cos * fx - sin * fy2;
+            y2 = sin * fx + cos * fy2;
+            x3 = cos * fx2 - sin * fy2;
+            y3 = sin * fx2 + cos * fy2;
+            x4 = x1 + (x3 - x2);
+            y4 = y3 - (y2 - y1);
+        } else {
+            x1 = fx;
+            y1 = fy;
+            x2 = fx;
+            y2 = fy2;
+            x3 = fx2;
+            y3 = fy2;
+            x4 = fx2;
+            y4 = fy;
+        }
+        
+        x1 += worldOriginX;
+        y1 += worldOriginY;
+        x2 += worldOriginX;
+        y2 += worldOriginY;
+        x3 += worldOriginX;
+        y3 += worldOriginY;
+        x4 += worldOriginX;
+        y4 += worldOriginY;
+    }
+
+    private void addSprite(Texture texture, float u1, float v1, float u2, float v2, float u3, float v3, float u4, float v4) {
+        float color = getPackedColor();
+        sprite[0] = x1;
+        sprite[1] = y1;
+        sprite[2] = color;
+        sprite[3] = u1;
+        sprite[4] = v1;
+        sprite[5] = x2;
+        sprite[6] = y2;
+        sprite[7] = color;
+        sprite[8] = u2;
+        sprite[9] = v2;
+        sprite[10] = x3;
+        sprite[11] = y3;
+        sprite[12] = color;
+        sprite[13] = u3;
+        sprite[14] = v3;
+        sprite[15] = x4;
+        sprite[16] = y4;
+        sprite[17] = color;
+        sprite[18] = u4;
+        sprite[19] = v4;
+        snapshot.draw(texture, sprite, 0, SPRITE_SIZE);
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+//one frame of drawing recorded by the simulation thread, replayed as is by the render thread
+public class RenderSnapshot {
+    private static final int BEGIN = 0;
+    private static final int END = 1;
+    private static final int DRAW = 2;
+    private static final int PROJECTION = 3;
+    private static final int TRANSFORM = 4;
+    private static final int BLEND_FUNCTION = 5;
+    private static final int BLENDING = 6;
+    private static final int CLEAR = 7;
+    private static final int SECTION = 8;
+    private static final int ENTITIES = 9;
+    private static final int SKELETON_VERTICES = 10;
+    private static final int SHADER = 11;
+    private static final RenderStats.Section[] SECTIONS = RenderStats.Section.values();
+    private final IntArray commands;
+    private final FloatArray vertices;
+    private final Array<Texture> textures;
+    private final Array<Matrix4> matrices;
+    private final Array<ShaderProgram> shaders;
+    private final Matrix4 identity;
+    private int matrixCount;
+    private int lastDraw;
+    private int spriteCount;
+    private long tick;
+
+    public RenderSnapshot() {
+        commands = new IntArray();
+        vertices = new FloatArray();
+        textures = new Array<Texture>();
+        matrices = new Array<Matrix4>();
+        shaders = new Array<ShaderProgram>();
+        identity = new Matrix4();
+        lastDraw = -1;
+    }
+
+    public void clear() {
+        commands.clear();
+        vertices.clear();
+        textures.clear();
+        shaders.clear();
+        matrixCount = 0;
+        lastDraw = -1;
+        spriteCount = 0;
+    }
+
+    public void begin() {
+        addCommand(BEGIN);
+    }
+
+    public void end() {
+        addCommand(END);
+    }
+
+    public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+        if (lastDraw != -1 && textures.peek() == texture) {
+            commands.items[lastDraw + 3] += count;
+        } else {
+            textures.add(texture);
+            lastDraw = commands.size;
+            commands.add(DRAW);
+            commands.add(textures.size - 1);
+            commands.add(vertices.size);
+            commands.add(count);
+        }
+        vertices.addAll(spriteVertices, offset, count);
+        spriteCount += count / 20;
+    }
+
+    public void setProjectionMatrix(Matrix4 projection) {
+        addCommand(PROJECTION);
+        commands.add(addMatrix(projection));
+    }
+
+    public void setTransformMatrix(Matrix4 transform) {
+        addCommand(TRANSFORM);
+        commands.add(addMatrix(transform));
+    }
+
+    public void setBlendFunction(int srcFunc, int dstFunc) {
+        addCommand(BLEND_FUNCTION);
+        commands.add(srcFunc);
+        commands.add(dstFunc);
+    }
+
+    public void setBlending(boolean blending) {
+        addCommand(BLENDING);
+        commands.add(blending ? 1 : 0);
+    }
+
+    public void setShader(ShaderProgram shader) {
+        addCommand(SHADER);
+        if (shader == null) {
+            commands.add(-1);
+        } else {
+            shaders.add(shader);
+            commands.add(shaders.size - 1);
+        }
+    }
+
+    public void clearScreen(float r, float g, float b, float a) {
+        addCommand(CLEAR);
+        commands.add(vertices.size);
+        vertices.add(r);
+        vertices.add(g);
+        vertices.add(b);
+        vertices.add(a);
+    }
+
+    public void beginSection(RenderStats.Section section) {
+        addCommand(SECTION);
+        commands.add(section.ordinal());
+    }
+
+    public void addEntities(int drawn, int culled) {
+        addCommand(ENTITIES);
+        commands.add(drawn);
+        commands.add(culled);
+    }
+
+    public void addSkeletonVertices(int count) {
+        addCommand(SKELETON_VERTICES);
+        commands.add(count);
+    }
+
+    private void addCommand(int command) {
+        lastDraw = -1;
+        commands.add(command);
+    }
+
+    private int addMatrix(Matrix4 matrix) {
+        if (matrixCount == matrices.size) {
+            matrices.add(new Matrix4());
+        }
+        matrices.get(matrixCount).set(matrix);
+        return matrixCount++;
+    }
+
+    public void replay(SpriteBatch spriteBatch, RenderStats renderStats) {
+        //the batch is shared with the hud, so it starts from and is left with the default blending
+        spriteBatch.enableBlending();
+        spriteBatch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        spriteBatch.setTransformMatrix(identity);
+        
+        int[] items = commands.items;
+        int i = 0;
+        while (i < commands.size) {
+            switch (items[i]) {
+                case BEGIN:
+                    spriteBatch.begin();
+                    i += 1;
+                    break;
+                case END:
+                    spriteBatch.end();
+                    i += 1;
+                    break;
+                case DRAW:
+                    spriteBatch.draw(textures.get(items[i + 1]), vertices.items, items[i + 2], items[i + 3]);
+                    i += 4;
+                    break;
+                case PROJECTION:
+                    spriteBatch.setProjectionMatrix(matrices.get(items[i + 1]));
+                    i += 2;
+                    break;
+                case TRANSFORM:
+                    spriteBatch.setTransformMatrix(matrices.get(items[i + 1]));
+                    i += 2;
+                    break;
+                case BLEND_FUNCTION:
+                    spriteBatch.setBlendFunction(items[i + 1], items[i + 2]);
+                    i += 3;
+                    break;
+                case BLENDING:
+                    if (items[i + 1] == 1) {
+                        spriteBatch.enableBlending();
+                    } else {
+                        spriteBatch.disableBlending();
+                    }
+                    i += 2;
+                    break;
+                case CLEAR:
+                    float[] color = vertices.items;
+                    int offset = items[i + 1];
+                    Gdx.gl.glClearColor(color[offset], color[offset + 1], color[offset + 2], color[offset + 3]);
+                    Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+                    i += 2;
+                    break;
+                case SECTION:
+                    renderStats.setSection(SECTIONS[items[i + 1]]);
+                    i += 2;
+                    break;
+                case ENTITIES:
+                    renderStats.countEntities(items[i + 1], items[i + 2]);
+                    i += 3;
+                    break;
+                case SKELETON_VERTICES:
+                    renderStats.countSkeletonVertices(items[i + 1]);
+                    i += 2;
+                    break;
+                case SHADER:
+                    spriteBatch.setShader(items[i + 1] == -1 ? null : shaders.get(items[i + 1]));
+                    i += 2;
+                    break;
+            }
+        }
+        
+        spriteBatch.setShader(null);
+        spriteBatch.enableBlending();
+        spriteBatch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    public int getSpriteCount() {
+        return spriteCount;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    void setTick(long tick) {
+        this.tick = tick;
+    }
+}
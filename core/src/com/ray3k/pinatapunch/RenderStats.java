@@ -0,0 +1,271 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.badlogic.gdx.utils.TimeUtils;
+
+public class RenderStats {
+    private final Counters[] frame;
+    private final Counters[] last;
+    private Section section;
+    private int frameDrawnEntities;
+    private int frameCulledEntities;
+    private int drawnEntities;
+    private int culledEntities;
+    private long frameCount;
+    private long frameEndTime;
+    private long frameTime;
+    private final Array<FrameListener> frameListeners;
+    private boolean hudVisible;
+    private BitmapFont hudFont;
+    private final Matrix4 hudProjection;
+    private final StringBuilder hudText;
+    private RenderSnapshot recording;
+
+    public static enum Section {
+        WORLD, UI
+    }
+
+    //called on the render thread once a frame's numbers are final, whether or not the simulation runs on its own thread
+    public interface FrameListener {
+        public void frameEnded(RenderStats renderStats);
+    }
+
+    private static class Counters {
+        private int renderCalls;
+        private int maxSpritesInBatch;
+        private int textureSwitches;
+        private int skeletonVertices;
+
+        private void set(Counters other) {
+            renderCalls = other.renderCalls;
+            maxSpritesInBatch = other.maxSpritesInBatch;
+            textureSwitches = other.textureSwitches;
+            skeletonVertices = other.skeletonVertices;
+        }
+
+        private void reset() {
+            renderCalls = 0;
+            maxSpritesInBatch = 0;
+            textureSwitches = 0;
+            skeletonVertices = 0;
+        }
+    }
+
+    public RenderStats() {
+        frame = new Counters[Section.values().length];
+        last = new Counters[Section.values().length];
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = new Counters();
+            last[i] = new Counters();
+        }
+        section = Section.UI;
+        hudProjection = new Matrix4();
+        hudText = new StringBuilder();
+        frameListeners = new Array<FrameListener>();
+    }
+
+    public void beginFrame() {
+        for (Counters counters : frame) {
+            counters.reset();
+        }
+        frameDrawnEntities = 0;
+        frameCulledEntities = 0;
+        section = Section.UI;
+    }
+
+    public void endFrame() {
+        for (int i = 0; i < frame.length; i++) {
+            last[i].set(frame[i]);
+        }
+        drawnEntities = frameDrawnEntities;
+        culledEntities = frameCulledEntities;
+        frameCount++;
+
+        long time = TimeUtils.nanoTime();
+        frameTime = frameEndTime == 0 ? 0 : time - frameEndTime;
+        frameEndTime = time;
+
+        for (int i = 0; i < frameListeners.size; i++) {
+            frameListeners.get(i).frameEnded(this);
+        }
+    }
+
+    public long getFrameTime() {
+        return frameTime;
+    }
+
+    public void addFrameListener(FrameListener listener) {
+        frameListeners.add(listener);
+    }
+
+    public void removeFrameListener(FrameListener listener) {
+        frameListeners.removeValue(listener, true);
+    }
+
+    //while the simulation thread records a snapshot, the calls made by its states are replayed with the snapshot
+    void setRecording(RenderSnapshot recording) {
+        this.recording = recording;
+    }
+
+    public void beginSection(Section section) {
+        if (recording != null) {
+            recording.beginSection(section);
+        } else {
+            setSection(section);
+        }
+    }
+
+    void setSection(Section section) {
+        this.section = section;
+    }
+
+    public Section getSection() {
+        return section;
+    }
+
+    public void addBatch(int renderCalls, int maxSpritesInBatch) {
+        Counters counters = frame[section.ordinal()];
+        counters.renderCalls += renderCalls;
+        counters.maxSpritesInBatch = Math.max(counters.maxSpritesInBatch, maxSpritesInBatch);
+    }
+
+    public void addTextureSwitch() {
+        frame[section.ordinal()].textureSwitches++;
+    }
+
+    public void addSkeletonVertices(int vertices) {
+        if (recording != null) {
+            recording.addSkeletonVertices(vertices);
+        } else {
+            countSkeletonVertices(vertices);
+        }
+    }
+
+    void countSkeletonVertices(int vertices) {
+        frame[section.ordinal()].skeletonVertices += vertices;
+    }
+
+    public void addEntities(int drawn, int culled) {
+        if (recording != null) {
+            recording.addEntities(drawn, culled);
+        } else {
+            countEntities(drawn, culled);
+        }
+    }
+
+    void countEntities(int drawn, int culled) {
+        frameDrawnEntities += drawn;
+        frameCulledEntities += culled;
+    }
+
+    public int getRenderCalls() {
+        int returnValue = 0;
+        for (Counters counters : last) {
+            returnValue += counters.renderCalls;
+        }
+        return returnValue;
+    }
+
+    public int getRenderCalls(Section section) {
+        return last[section.ordinal()].renderCalls;
+    }
+
+    public int getMaxSpritesInBatch(Section section) {
+        return last[section.ordinal()].maxSpritesInBatch;
+    }
+
+    public int getTextureSwitches() {
+        int returnValue = 0;
+        for (Counters counters : last) {
+            returnValue += counters.textureSwitches;
+        }
+        return returnValue;
+    }
+
+    public int getTextureSwitches(Section section) {
+        return last[section.ordinal()].textureSwitches;
+    }
+
+    public int getSkeletonVertices() {
+        return last[Section.WORLD.ordinal()].skeletonVertices + last[Section.UI.ordinal()].skeletonVertices;
+    }
+
+    public int getDrawnEntities() {
+        return drawnEntities;
+    }
+
+    public int getCulledEntities() {
+        return culledEntities;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public boolean isHudVisible() {
+        return hudVisible;
+    }
+
+    public void setHudVisible(boolean hudVisible) {
+        this.hudVisible = hudVisible;
+    }
+
+    public void drawHud(SpriteBatch spriteBatch, int width, int height) {
+        if (hudFont == null) {
+            hudFont = new BitmapFont();
+        }
+
+        hudText.setLength(0);
+        appendSection(Section.WORLD);
+        appendSection(Section.UI);
+        hudText.append("skeleton vertices ").append(getSkeletonVertices()).append('\n');
+        hudText.append("entities drawn ").append(drawnEntities).append(", culled ").append(culledEntities);
+
+        hudProjection.setToOrtho2D(0, 0, width, height);
+        spriteBatch.setProjectionMatrix(hudProjection);
+        spriteBatch.begin();
+        hudFont.draw(spriteBatch, hudText, 10.0f, height - 10.0f);
+        spriteBatch.end();
+    }
+
+    private void appendSection(Section section) {
+        Counters counters = last[section.ordinal()];
+        hudText.append(section.name().toLowerCase()).append(": render calls ").append(counters.renderCalls);
+        hudText.append(", texture switches ").append(counters.textureSwitches);
+        hudText.append(", max sprites ").append(counters.maxSpritesInBatch).append('\n');
+    }
+
+    public void dispose() {
+        if (hudFont != null) {
+            hudFont.dispose();
+            hudFont = null;
+        }
+    }
+}
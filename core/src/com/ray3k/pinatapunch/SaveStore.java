@@ -0,0 +1,423 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+//keeps the high scores and settings in memory, changes are written to a small binary file by a background thread
+public class SaveStore {
+    private static final int MAGIC = 0x50505356;
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_PAYLOAD = 64 * 1024;
+    public static final int MAX_SCORES = 10;
+    private static final long WRITE_DELAY = 500;
+    private final File file;
+    private final File tempFile;
+    private final Object lock;
+    private final IntArray scores;
+    private final ObjectMap<String, String> settings;
+    private int gamesPlayed;
+    private long revision;
+    private long writtenRevision;
+    private int requestCount;
+    private int writeCount;
+    private int failedCount;
+    private Thread writer;
+    private boolean running;
+    private boolean flushRequested;
+
+    public SaveStore(File file) {
+        this.file = file;
+        tempFile = new File(file.getPath() + ".tmp");
+        lock = new Object();
+        scores = new IntArray(MAX_SCORES + 1);
+        settings = new ObjectMap<String, String>();
+    }
+
+    //a write interrupted before the rename leaves a complete temp file behind, so it is the fallback when the main file is missing or damaged
+    public void load() {
+        long startTime = TimeUtils.nanoTime();
+        synchronized (lock) {
+            if (!read(file) && !read(tempFile)) {
+                scores.clear();
+                settings.clear();
+                gamesPlayed = 0;
+            }
+            revision = 0;
+            writtenRevision = 0;
+        }
+        Gdx.app.log(SaveStore.class.getName(), "Loaded " + scores.size + " scores and " + settings.size + " settings in " + ((TimeUtils.nanoTime() - startTime) / 1000) + "us");
+    }
+
+    private boolean read(File source) {
+        if (!source.exists()) {
+            return false;
+        }
+
+        DataInputStream input = null;
+        try {
+            input = new DataInputStream(new FileInputStream(source));
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Not a save file");
+            }
+            if (input.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unknown save format");
+            }
+
+            int length = input.readInt();
+            if (length < 0 || length > MAX_PAYLOAD) {
+                throw new IOException("Bad payload length " + length);
+            }
+            byte[] payload = new byte[length];
+            input.readFully(payload);
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (input.readInt() != (int) crc.getValue()) {
+                throw new IOException("Checksum mismatch");
+            }
+
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload));
+            int gamesPlayed = data.readInt();
+            IntArray scores = new IntArray();
+            int scoreCount = data.readInt();
+            for (int i = 0; i < scoreCount && i < MAX_SCORES; i++) {
+                scores.add(data.readInt());
+            }
+            ObjectMap<String, String> settings = new ObjectMap<String, String>();
+            int settingCount = data.readInt();
+            for (int i = 0; i < settingCount; i++) {
+                settings.put(data.readUTF(), data.readUTF());
+            }
+
+            this.gamesPlayed = gamesPlayed;
+            this.scores.clear();
+            this.scores.addAll(scores);
+            this.settings.clear();
+            this.settings.putAll(settings);
+            return true;
+        } catch (EOFException e) {
+            Gdx.app.error(SaveStore.class.getName(), "Save file is truncated: " + source.getPath());
+        } catch (IOException e) {
+            Gdx.app.error(SaveStore.class.getName(), "Could not read save file " + source.getPath() + ": " + e.getMessage());
+        } finally {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+
+                }
+            }
+        }
+        return false;
+    }
+
+    public void start() {
+        synchronized (lock) {
+            if (writer != null) {
+                return;
+            }
+            running = true;
+        }
+
+        writer = new Thread("save-writer") {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        };
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    //changes that arrive while the writer waits out the delay go into the same write
+    private void writeLoop() {
+        while (true) {
+            byte[] bytes;
+            long snapshotRevision;
+            synchronized (lock) {
+                while (running && revision == writtenRevision) {
+                    waitForLock(0);
+                }
+
+                if (revision == writtenRevision) {
+                    return;
+                }
+
+                long deadline = TimeUtils.millis() + WRITE_DELAY;
+                long remaining = WRITE_DELAY;
+                while (running && !flushRequested && remaining > 0) {
+                    waitForLock(remaining);
+                    remaining = deadline - TimeUtils.millis();
+                }
+
+                snapshotRevision = revision;
+                bytes = serialize();
+            }
+
+            write(bytes, snapshotRevision);
+        }
+    }
+
+    private void waitForLock(long millis) {
+        try {
+            lock.wait(millis);
+        } catch (InterruptedException e) {
+
+        }
+    }
+
+    private void write(byte[] bytes, long snapshotRevision) {
+        boolean written = writeFile(bytes);
+        synchronized (lock) {
+            if (written) {
+                writtenRevision = Math.max(writtenRevision, snapshotRevision);
+                writeCount++;
+            } else {
+                //retried with the next change instead of spinning on a failing disk
+                writtenRevision = Math.max(writtenRevision, snapshotRevision);
+                failedCount++;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private byte[] serialize() {
+        try {
+            ByteArrayOutputStream payloadStream = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(payloadStream);
+            data.writeInt(gamesPlayed);
+            data.writeInt(scores.size);
+            for (int i = 0; i < scores.size; i++) {
+                data.writeInt(scores.get(i));
+            }
+            data.writeInt(settings.size);
+            for (ObjectMap.Entry<String, String> entry : settings.entries()) {
+                data.writeUTF(entry.key);
+                data.writeUTF(entry.value);
+            }
+            data.flush();
+            byte[] payload = payloadStream.toByteArray();
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+
+            ByteArrayOutputStream fileStream = new ByteArrayOutputStream(payload.length + 16);
+            DataOutputStream output = new DataOutputStream(fileStream);
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(payload.length);
+            output.write(payload);
+            output.writeInt((int) crc.getValue());
+            output.flush();
+            return fileStream.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //the new contents are synced to the temp file before it replaces the old file, so a crash leaves one complete copy
+    private boolean writeFile(byte[] bytes) {
+        FileOutputStream output = null;
+        try {
+            File parent = tempFile.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+
+            output = new FileOutputStream(tempFile);
+            output.write(bytes);
+            output.flush();
+            output.getFD().sync();
+            output.close();
+            output = null;
+
+            //rename replaces the file in one step on POSIX systems, Windows refuses while the target exists
+            if (!tempFile.renameTo(file)) {
+                file.delete();
+                if (!tempFile.renameTo(file)) {
+                    throw new IOException("Could not rename " + tempFile.getPath());
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            Gdx.app.error(SaveStore.class.getName(), "Could not write save file: " + e.getMessage());
+            return false;
+        } finally {
+            if (output != null) {
+                try {
+                    output.close();
+                } catch (IOException e) {
+
+                }
+            }
+        }
+    }
+
+    private void requestWrite() {
+        revision++;
+        requestCount++;
+        lock.notifyAll();
+    }
+
+    public boolean submitScore(int score) {
+        synchronized (lock) {
+            gamesPlayed++;
+            boolean returnValue = scores.size == 0 || score > scores.get(0);
+
+            int index = 0;
+            while (index < scores.size && scores.get(index) >= score) {
+                index++;
+            }
+            if (index < MAX_SCORES) {
+                scores.insert(index, score);
+                if (scores.size > MAX_SCORES) {
+                    scores.pop();
+                }
+            }
+
+            requestWrite();
+            return returnValue;
+        }
+    }
+
+    public int getHighScore() {
+        synchronized (lock) {
+            return scores.size > 0 ? scores.get(0) : 0;
+        }
+    }
+
+    public int getScoreCount() {
+        synchronized (lock) {
+            return scores.size;
+        }
+    }
+
+    public int getScore(int index) {
+        synchronized (lock) {
+            return scores.get(index);
+        }
+    }
+
+    public int getGamesPlayed() {
+        synchronized (lock) {
+            return gamesPlayed;
+        }
+    }
+
+    public String getString(String key, String defaultValue) {
+        synchronized (lock) {
+            return settings.get(key, defaultValue);
+        }
+    }
+
+    public void putString(String key, String value) {
+        synchronized (lock) {
+            String previous = settings.put(key, value);
+            if (previous == null || !previous.equals(value)) {
+                requestWrite();
+            }
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    public void putBoolean(String key, boolean value) {
+        putString(key, Boolean.toString(value));
+    }
+
+    //blocks until everything changed so far is on disk, gameplay never needs to call it
+    public void flush() {
+        synchronized (lock) {
+            if (writer == null || !writer.isAlive()) {
+                if (revision != writtenRevision) {
+                    write(serialize(), revision);
+                }
+                return;
+            }
+
+            flushRequested = true;
+            lock.notifyAll();
+            while (revision != writtenRevision && writer.isAlive()) {
+                waitForLock(WRITE_DELAY);
+            }
+            flushRequested = false;
+        }
+    }
+
+    public void dispose() {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+
+            }
+            writer = null;
+        }
+        flush();
+    }
+
+    public int getRequestCount() {
+        synchronized (lock) {
+            return requestCount;
+        }
+    }
+
+    public int getWriteCount() {
+        synchronized (lock) {
+            return writeCount;
+        }
+    }
+
+    public int getFailedCount() {
+        synchronized (lock) {
+            return failedCount;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.utils.TimeUtils;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//runs StateManager.act at the fixed rate and hands each result to the render thread as a recorded snapshot
+public class SimulationThread extends Thread {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+    private static final int MAX_TICKS_PER_SNAPSHOT = 5;
+    private final Core core;
+    private final long nanosPerUpdate;
+    private final Object lock;
+    private final RecordingBatch recordingBatch;
+    private final RenderSnapshot[] snapshots;
+    private final AtomicInteger latest;
+    private final QueuedInputProcessor inputProcessor;
+    private final AtomicLong pendingSize;
+    private int back;
+    private int front;
+    private volatile long tickCount;
+    private volatile boolean running;
+    private volatile Exception failure;
+
+    //input arrives on the render thread and is queued for the simulation thread to hand to the states before its next tick
+    public class QueuedInputProcessor implements InputProcessor {
+        private static final int CAPACITY = 128;
+        private static final int KEY_DOWN = 0;
+        private static final int KEY_UP = 1;
+        private static final int KEY_TYPED = 2;
+        private static final int TOUCH_DOWN = 3;
+        private static final int TOUCH_UP = 4;
+        private static final int TOUCH_DRAGGED = 5;
+        private static final int MOUSE_MOVED = 6;
+        private static final int SCROLLED = 7;
+        private final int[] types;
+        private final int[] values;
+        private final long[] times;
+        //single producer, single consumer: only the render thread advances writeCount and only drain advances readCount
+        private volatile long writeCount;
+        private volatile long readCount;
+        private volatile InputProcessor processor;
+        private int droppedCount;
+        private boolean draining;
+        private long drainTime;
+
+        public QueuedInputProcessor() {
+            types = new int[CAPACITY];
+            values = new int[CAPACITY * 4];
+            times = new long[CAPACITY];
+        }
+
+        public InputProcessor getProcessor() {
+            return processor;
+        }
+
+        public void setProcessor(InputProcessor processor) {
+            this.processor = processor;
+        }
+
+        private boolean add(int type, int a, int b, int c, int d) {
+            long write = writeCount;
+            if (write - readCount >= CAPACITY) {
+                droppedCount++;
+                return false;
+            }
+            
+            int index = (int) (write % CAPACITY);
+            types[index] = type;
+            values[index * 4] = a;
+            values[index * 4 + 1] = b;
+            values[index * 4 + 2] = c;
+            values[index * 4 + 3] = d;
+            times[index] = TimeUtils.nanoTime();
+            writeCount = write + 1;
+            return true;
+        }
+
+        private void drain() {
+            for (long read = readCount; read < writeCount; read++) {
+                int index = (int) (read % CAPACITY);
+                InputProcessor processor = this.processor;
+                if (processor != null) {
+                    draining = true;
+                    drainTime = times[index];
+                    try {
+                        deliver(processor, types[index], index * 4);
+                    } finally {
+                        draining = false;
+                    }
+                }
+                readCount = read + 1;
+            }
+        }
+
+        private void deliver(InputProcessor processor, int type, int offset) {
+            switch (type) {
+                case KEY_DOWN:
+                    processor.keyDown(values[offset]);
+                    break;
+                case KEY_UP:
+                    processor.keyUp(values[offset]);
+                    break;
+                case KEY_TYPED:
+                    processor.keyTyped((char) values[offset]);
+                    break;
+                case TOUCH_DOWN:
+                    processor.touchDown(values[offset], values[offset + 1], values[offset + 2], values[offset + 3]);
+                    break;
+                case TOUCH_UP:
+                    processor.touchUp(values[offset], values[offset + 1], values[offset + 2], values[offset + 3]);
+                    break;
+                case TOUCH_DRAGGED:
+                    processor.touchDragged(values[offset], values[offset + 1], values[offset + 2]);
+                    break;
+                case MOUSE_MOVED:
+                    processor.mouseMoved(values[offset], values[offset + 1]);
+                    break;
+                case SCROLLED:
+                    processor.scrolled(values[offset]);
+                    break;
+            }
+        }
+
+        public long getEventTime() {
+            if (draining && Thread.currentThread() == SimulationThread.this) {
+                return drainTime;
+            }
+            return TimeUtils.nanoTime();
+        }
+
+        public int getDroppedCount() {
+            return droppedCount;
+        }
+
+        //the states can't answer from another thread, so every event is reported as handled once it is queued
+        @Override
+        public boolean keyDown(int keycode) {
+            return add(KEY_DOWN, keycode, 0, 0, 0);
+        }
+
+        @Override
+        public boolean keyUp(int keycode) {
+            return add(KEY_UP, keycode, 0, 0, 0);
+        }
+
+        @Override
+        public boolean keyTyped(char character) {
+            return add(KEY_TYPED, character, 0, 0, 0);
+        }
+
+        @Override
+        public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+            return add(TOUCH_DOWN, screenX, screenY, pointer, button);
+        }
+
+        @Override
+        public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+            return add(TOUCH_UP, screenX, screenY, pointer, button);
+        }
+
+        @Override
+        public boolean touchDragged(int screenX, int screenY, int pointer) {
+            return add(TOUCH_DRAGGED, screenX, screenY, pointer, 0);
+        }
+
+        @Override
+        public boolean mouseMoved(int screenX, int screenY) {
+            return add(MOUSE_MOVED, screenX, screenY, 0, 0);
+        }
+
+        @Override
+        public boolean scrolled(int amount) {
+            return add(SCROLLED, amount, 0, 0, 0);
+        }
+    }
+
+    public SimulationThread(Core core, long millisPerUpdate) {
+        super("simulation");
+        setDaemon(true);
+        this.core = core;
+        nanosPerUpdate = millisPerUpdate * 1000000L;
+        lock = new Object();
+        recordingBatch = new RecordingBatch();
+        inputProcessor = new QueuedInputProcessor();
+        pendingSize = new AtomicLong(-1);
+        
+        //one snapshot is being drawn, one is being recorded and the third holds the latest finished tick
+        snapshots = new RenderSnapshot[3];
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = new RenderSnapshot();
+        }
+        front = 0;
+        latest = new AtomicInteger(1);
+        back = 2;
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        super.start();
+    }
+
+    @Override
+    public void run() {
+        try {
+            long next = TimeUtils.nanoTime();
+            while (running) {
+                long wait = next - TimeUtils.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(wait / 1000000L, (int) (wait % 1000000L));
+                    continue;
+                }
+                
+                //the lock is let go between ticks so a state change from the render thread gets through
+                int ticks = 0;
+                while (TimeUtils.nanoTime() >= next && ticks < MAX_TICKS_PER_SNAPSHOT) {
+                    synchronized (lock) {
+                        long size = pendingSize.getAndSet(-1);
+                        if (size != -1) {
+                            core.getStateManager().resize((int) (size >>> 32), (int) size);
+                        }
+                        inputProcessor.drain();
+                        core.getStateManager().act(nanosPerUpdate / 1000000000.0f);
+                        tickCount++;
+                    }
+                    next += nanosPerUpdate;
+                    ticks++;
+                }
+                
+                //ticks slower than their slot would never catch up with the clock, so the backlog is dropped
+                long now = TimeUtils.nanoTime();
+                if (now >= next) {
+                    next = now + nanosPerUpdate;
+                }
+                
+                synchronized (lock) {
+                    record(snapshots[back]);
+                }
+                
+                back = latest.getAndSet(back | FRESH) & INDEX_MASK;
+            }
+        } catch (InterruptedException e) {
+            
+        } catch (Exception e) {
+            failure = e;
+        }
+    }
+
+    //the snapshot is drawn right after the last tick, so there is nothing left to interpolate
+    private void record(RenderSnapshot snapshot) {
+        snapshot.clear();
+        snapshot.setTick(tickCount);
+        recordingBatch.setSnapshot(snapshot);
+        core.getRenderStats().setRecording(snapshot);
+        try {
+            core.getStateManager().draw(recordingBatch, 0.0f);
+        } finally {
+            core.getRenderStats().setRecording(null);
+        }
+    }
+
+    public RenderSnapshot acquireSnapshot() {
+        if ((latest.get() & FRESH) != 0) {
+            front = latest.getAndSet(front) & INDEX_MASK;
+        }
+        return snapshots[front];
+    }
+
+    public void stopSimulation() {
+        running = false;
+        interrupt();
+        try {
+            join();
+        } catch (InterruptedException e) {
+            
+        }
+    }
+
+    public void checkFailure() {
+        if (failure != null) {
+            throw new RuntimeException("Exception on the simulation thread", failure);
+        }
+    }
+
+    public void resize(int width, int height) {
+        pendingSize.set((long) width << 32 | height & 0xFFFFFFFFL);
+    }
+
+    public Object getLock() {
+        return lock;
+    }
+
+    public RecordingBatch getRecordingBatch() {
+        return recordingBatch;
+    }
+
+    public QueuedInputProcessor getInputProcessor() {
+        return inputProcessor;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+}
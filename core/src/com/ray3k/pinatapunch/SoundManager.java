@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+
+public class SoundManager {
+    private static final int HANDOFF_CAPACITY = 32;
+    private final AssetManager assetManager;
+    private final Array<SoundHandle> sounds;
+    private final Array<SoundHandle> queue;
+    private final SoundHandle[] handoffHandles;
+    private final float[] handoffVolumes;
+    //single producer, single consumer: only post advances writeCount and only flush advances readCount
+    private volatile long writeCount;
+    private volatile long readCount;
+    private int playedCount;
+    private int mergedCount;
+    private int droppedCount;
+    private int overflowCount;
+
+    public static class SoundHandle {
+        private final String fileName;
+        private final long voiceLength;
+        private final long[] voiceStartTimes;
+        private int nextVoice;
+        private Sound sound;
+        private boolean queued;
+        private float queuedVolume;
+
+        private SoundHandle(String fileName, int maxVoices, float voiceLength) {
+            this.fileName = fileName;
+            this.voiceLength = (long) (voiceLength * 1000000000L);
+            voiceStartTimes = new long[maxVoices];
+            for (int i = 0; i < maxVoices; i++) {
+                voiceStartTimes[i] = Long.MIN_VALUE / 2;
+            }
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public int getMaxVoices() {
+            return voiceStartTimes.length;
+        }
+
+        //voices are assumed to play for the registered length since Sound can't report when a playback ends
+        private boolean hasFreeVoice(long time) {
+            return time - voiceStartTimes[nextVoice] >= voiceLength;
+        }
+
+        private void startVoice(long time) {
+            voiceStartTimes[nextVoice] = time;
+            nextVoice = (nextVoice + 1) % voiceStartTimes.length;
+        }
+    }
+
+    public SoundManager(AssetManager assetManager) {
+        this.assetManager = assetManager;
+        sounds = new Array<SoundHandle>();
+        queue = new Array<SoundHandle>();
+        handoffHandles = new SoundHandle[HANDOFF_CAPACITY];
+        handoffVolumes = new float[HANDOFF_CAPACITY];
+    }
+
+    public SoundHandle register(String fileName, int maxVoices, float voiceLength) {
+        SoundHandle handle = new SoundHandle(fileName, maxVoices, voiceLength);
+        sounds.add(handle);
+        return handle;
+    }
+
+    public SoundHandle getSound(String fileName) {
+        for (int i = 0; i < sounds.size; i++) {
+            SoundHandle handle = sounds.get(i);
+            if (handle.fileName.equals(fileName)) {
+                return handle;
+            }
+        }
+
+        Gdx.app.error(SoundManager.class.getName(), "Sound is not registered: " + fileName);
+        return null;
+    }
+
+    public void play(SoundHandle handle, float volume) {
+        if (handle.queued) {
+            //stacking the same sample in one tick only makes it louder, so keep a single request at the highest volume
+            handle.queuedVolume = Math.max(handle.queuedVolume, volume);
+            mergedCount++;
+        } else {
+            handle.queued = true;
+            handle.queuedVolume = volume;
+            queue.add(handle);
+        }
+    }
+
+    //called after each tick by whichever thread runs the ticks, the merged requests wait there for flush
+    public void post() {
+        for (int i = 0; i < queue.size; i++) {
+            SoundHandle handle = queue.get(i);
+            handle.queued = false;
+
+            long write = writeCount;
+            if (write - readCount >= HANDOFF_CAPACITY) {
+                overflowCount++;
+            } else {
+                int index = (int) (write % HANDOFF_CAPACITY);
+                handoffHandles[index] = handle;
+                handoffVolumes[index] = handle.queuedVolume;
+                writeCount = write + 1;
+            }
+        }
+
+        queue.clear();
+    }
+
+    public void flush() {
+        long time = TimeUtils.nanoTime();
+
+        for (long read = readCount; read < writeCount; read++) {
+            int index = (int) (read % HANDOFF_CAPACITY);
+            SoundHandle handle = handoffHandles[index];
+            handoffHandles[index] = null;
+
+            if (resolve(handle) && handle.hasFreeVoice(time)) {
+                handle.sound.play(handoffVolumes[index]);
+                handle.startVoice(time);
+                playedCount++;
+            } else {
+                droppedCount++;
+            }
+            readCount = read + 1;
+        }
+    }
+
+    private boolean resolve(SoundHandle handle) {
+        if (handle.sound == null && assetManager.isLoaded(handle.fileName)) {
+            handle.sound = assetManager.get(handle.fileName, Sound.class);
+        }
+        return handle.sound != null;
+    }
+
+    public int getPlayedCount() {
+        return playedCount;
+    }
+
+    public int getMergedCount() {
+        return mergedCount;
+    }
+
+    public int getDroppedCount() {
+        return droppedCount + overflowCount;
+    }
+
+    public void resetCounters() {
+        playedCount = 0;
+        mergedCount = 0;
+        droppedCount = 0;
+        overflowCount = 0;
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.ray3k.pinatapunch.entities.EnemyEntity;
+
+public class SpawnDirector {
+    private static final float SAMPLE_INTERVAL = 5.0f;
+    private static final EnemyEntity.Type[] TYPES = EnemyEntity.Type.values();
+    private final ObjectMap<String, Profile> profiles;
+    private final Spawner spawner;
+    private Profile profile;
+    private float time;
+    private float spawnCredit;
+    private float[] waveStarts;
+    private float[] waveSpawnTimes;
+    private int[] waveRemaining;
+    private final int[] spawnCounts;
+    private int spawnedCount;
+    private float sampleTimer;
+    private final FloatArray sampleTimes;
+    private final IntArray sampleSpawned;
+    private final IntArray sampleEnemies;
+    private final IntArray sampleEntities;
+    private int peakEnemies;
+    
+    public interface Spawner {
+        public boolean isReady(EnemyEntity.Type type);
+        
+        public void spawn(EnemyEntity.Type type);
+        
+        public int getEnemyCount();
+        
+        public int getEntityCount();
+    }
+    
+    public static class Profile {
+        private String name;
+        private boolean invulnerable;
+        private int maxEnemies;
+        private float[] rateTimes;
+        private float[] rates;
+        private final Array<Entry> entries = new Array<Entry>();
+        private final Array<Wave> waves = new Array<Wave>();
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isInvulnerable() {
+            return invulnerable;
+        }
+
+        public int getMaxEnemies() {
+            return maxEnemies;
+        }
+    }
+    
+    private static class Entry {
+        private EnemyEntity.Type type;
+        private float weight;
+        private float after;
+    }
+    
+    private static class Wave {
+        private float time;
+        private float repeat;
+        private int count;
+        private float interval;
+        private EnemyEntity.Type type;
+    }
+    
+    //profiles are read once, a profile sets a spawn rate curve in enemies per second, the weighted enemy table and the bursts
+    public SpawnDirector(JsonValue config, Spawner spawner) {
+        this.spawner = spawner;
+        profiles = new ObjectMap<String, Profile>();
+        spawnCounts = new int[TYPES.length];
+        sampleTimes = new FloatArray();
+        sampleSpawned = new IntArray();
+        sampleEnemies = new IntArray();
+        sampleEntities = new IntArray();
+        
+        for (JsonValue value : config) {
+            Profile profile = new Profile();
+            profile.name = value.name;
+            profile.invulnerable = value.getBoolean("invulnerable", false);
+            profile.maxEnemies = value.getInt("maxEnemies", 0);
+            
+            JsonValue rate = value.get("rate");
+            profile.rateTimes = new float[rate.size];
+            profile.rates = new float[rate.size];
+            for (int i = 0; i < rate.size; i++) {
+                profile.rateTimes[i] = rate.get(i).getFloat(0);
+                profile.rates[i] = rate.get(i).getFloat(1);
+            }
+            
+            for (JsonValue enemy : value.get("enemies")) {
+                Entry entry = new Entry();
+                entry.type = EnemyEntity.Type.valueOf(enemy.getString("type"));
+                entry.weight = enemy.getFloat("weight", 1.0f);
+                entry.after = enemy.getFloat("after", 0.0f);
+                profile.entries.add(entry);
+            }
+            
+            JsonValue waves = value.get("waves");
+            if (waves != null) {
+                for (JsonValue child : waves) {
+                    Wave wave = new Wave();
+                    wave.time = child.getFloat("time");
+                    wave.repeat = child.getFloat("repeat", 0.0f);
+                    wave.count = child.getInt("count");
+                    wave.interval = child.getFloat("interval", 0.0f);
+                    String type = child.getString("type", null);
+                    wave.type = type == null ? null : EnemyEntity.Type.valueOf(type);
+                    profile.waves.add(wave);
+                }
+            }
+            
+            profiles.put(profile.name, profile);
+        }
+    }
+    
+    public void setProfile(String name) {
+        Profile profile = profiles.get(name);
+        if (profile == null) {
+            Gdx.app.error(SpawnDirector.class.getName(), "Spawn profile does not exist: " + name);
+            return;
+        }
+        
+        this.profile = profile;
+        waveStarts = new float[profile.waves.size];
+        waveSpawnTimes = new float[profile.waves.size];
+        waveRemaining = new int[profile.waves.size];
+        reset();
+    }
+    
+    public void reset() {
+        time = 0.0f;
+        spawnCredit = 1.0f;
+        for (int i = 0; i < profile.waves.size; i++) {
+            waveStarts[i] = profile.waves.get(i).time;
+            waveRemaining[i] = 0;
+        }
+        
+        for (int i = 0; i < spawnCounts.length; i++) {
+            spawnCounts[i] = 0;
+        }
+        spawnedCount = 0;
+        peakEnemies = 0;
+        sampleTimer = 0.0f;
+        sampleTimes.clear();
+        sampleSpawned.clear();
+        sampleEnemies.clear();
+        sampleEntities.clear();
+    }
+    
+    public void act(float delta, boolean spawning) {
+        time += delta;
+        
+        if (spawning) {
+            spawnCredit += getRate() * delta;
+            while (spawnCredit >= 1.0f) {
+                spawnCredit -= 1.0f;
+                spawn(null);
+            }
+            
+            for (int i = 0; i < profile.waves.size; i++) {
+                Wave wave = profile.waves.get(i);
+                if (waveRemaining[i] == 0 && time >= waveStarts[i]) {
+                    waveRemaining[i] = wave.count;
+                    waveSpawnTimes[i] = time;
+                    waveStarts[i] = wave.repeat > 0 ? waveStarts[i] + wave.repeat : Float.POSITIVE_INFINITY;
+                }
+                
+                while (waveRemaining[i] > 0 && time >= waveSpawnTimes[i]) {
+                    spawn(wave.type);
+                    waveRemaining[i]--;
+                    waveSpawnTimes[i] += wave.interval;
+                }
+            }
+        }
+        
+        int enemies = spawner.getEnemyCount();
+        if (enemies > peakEnemies) {
+            peakEnemies = enemies;
+        }
+        
+        sampleTimer -= delta;
+        if (sampleTimer <= 0) {
+            sampleTimer += SAMPLE_INTERVAL;
+            sampleTimes.add(time);
+            sampleSpawned.add(spawnedCount);
+            sampleEnemies.add(enemies);
+            sampleEntities.add(spawner.getEntityCount());
+        }
+    }
+    
+    public float getRate() {
+        float[] times = profile.rateTimes;
+        float[] rates = profile.rates;
+        if (time <= times[0]) {
+            return rates[0];
+        }
+        
+        for (int i = 1; i < times.length; i++) {
+            if (time < times[i]) {
+                return MathUtils.lerp(rates[i - 1], rates[i], (time - times[i - 1]) / (times[i] - times[i - 1]));
+            }
+        }
+        return rates[rates.length - 1];
+    }
+    
+    //a null or not yet eligible type falls back to a weighted pick from the table
+    public void spawn(EnemyEntity.Type type) {
+        if (profile.maxEnemies > 0 && spawner.getEnemyCount() >= profile.maxEnemies) {
+            return;
+        }
+        
+        if (type == null || !isEligible(type)) {
+            type = pickType();
+            if (type == null) {
+                return;
+            }
+        }
+        
+        spawner.spawn(type);
+        spawnCounts[type.ordinal()]++;
+        spawnedCount++;
+    }
+    
+    private boolean isEligible(EnemyEntity.Type type) {
+        return getTimeUntil(type) <= 0 && spawner.isReady(type);
+    }
+    
+    private EnemyEntity.Type pickType() {
+        float totalWeight = 0.0f;
+        for (int i = 0; i < profile.entries.size; i++) {
+            Entry entry = profile.entries.get(i);
+            if (entry.after <= time && spawner.isReady(entry.type)) {
+                totalWeight += entry.weight;
+            }
+        }
+        
+        if (totalWeight <= 0) {
+            return null;
+        }
+        
+        float pick = MathUtils.random(totalWeight);
+        EnemyEntity.Type returnValue = null;
+        for (int i = 0; i < profile.entries.size; i++) {
+            Entry entry = profile.entries.get(i);
+            if (entry.after <= time && spawner.isReady(entry.type)) {
+                returnValue = entry.type;
+                pick -= entry.weight;
+                if (pick <= 0) {
+                    break;
+                }
+            }
+        }
+        return returnValue;
+    }
+    
+    public float getTimeUntil(EnemyEntity.Type type) {
+        float returnValue = Float.POSITIVE_INFINITY;
+        for (int i = 0; i < profile.entries.size; i++) {
+            Entry entry = profile.entries.get(i);
+            if (entry.type == type) {
+                returnValue = Math.min(returnValue, entry.after - time);
+            }
+        }
+        return returnValue;
+    }
+    
+    public void log() {
+        StringBuilder builder = new StringBuilder("Spawned " + spawnedCount + " enemies in " + (int) time + "s with profile " + profile.name + ", peak " + peakEnemies + " live:");
+        for (EnemyEntity.Type type : TYPES) {
+            builder.append(" ").append(type).append(" ").append(spawnCounts[type.ordinal()]);
+        }
+        Gdx.app.log(SpawnDirector.class.getName(), builder.toString());
+        
+        for (int i = 0; i < sampleTimes.size; i++) {
+            Gdx.app.log(SpawnDirector.class.getName(), (int) sampleTimes.get(i) + "s: " + sampleSpawned.get(i) + " spawned, " + sampleEnemies.get(i) + " enemies, " + sampleEntities.get(i) + " entities");
+        }
+    }
+    
+    public Profile getProfile() {
+        return profile;
+    }
+    
+    public float getTime() {
+        return time;
+    }
+    
+    public int getSpawnedCount() {
+        return spawnedCount;
+    }
+    
+    public int getSpawnCount(EnemyEntity.Type type) {
+        return spawnCounts[type.ordinal()];
+    }
+    
+    public int getPeakEnemies() {
+        return peakEnemies;
+    }
+    
+    public FloatArray getSampleTimes() {
+        return sampleTimes;
+    }
+    
+    public IntArray getSampleSpawned() {
+        return sampleSpawned;
+    }
+    
+    public IntArray getSampleEnemies() {
+        return sampleEnemies;
+    }
+    
+    public IntArray getSampleEntities() {
+        return sampleEntities;
+    }
+}
@@ -28,10 +28,14 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 public abstract class State {
     private Core core;
     
-    public abstract void start();
+    private boolean created;
+    
+    //create is called once before the first enter, resources made there stay warm until dispose
+    public abstract void create();
+    public abstract void enter();
     public abstract void draw(SpriteBatch spriteBatch, float delta);
     public abstract void act(float delta);
-    public abstract void stop();
+    public abstract void exit();
     public abstract void dispose();
     public abstract void resize(int width, int height);
     
@@ -42,4 +46,16 @@ public abstract class State {
     public Core getCore() {
         return core;
     }
+    
+    public String getAssetGroup() {
+        return null;
+    }
+    
+    public boolean isCreated() {
+        return created;
+    }
+    
+    void setCreated(boolean created) {
+        this.created = created;
+    }
 }
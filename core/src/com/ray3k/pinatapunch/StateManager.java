@@ -26,15 +26,23 @@ package com.ray3k.pinatapunch;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.ray3k.pinatapunch.states.LoadingState;
 
 public class StateManager {
     private final ObjectMap<String, State> states;
     private State loadedState;
     private Core core;
+    private String loadingState;
+    private long transitionTime;
+    private final Thread renderThread;
+    private volatile String pendingState;
+    private volatile boolean statePending;
     
     public StateManager(Core core) {
         this.core = core;
         states = new ObjectMap<String, State>();
+        renderThread = Thread.currentThread();
     }
     
     public void addState(String name, State state) {
@@ -51,29 +59,81 @@ public class StateManager {
         if (loadedState != null) {
             loadedState.act(delta);
         }
+        
+        core.getEventQueue().flush();
+        core.getSoundManager().post();
     }
     
     public void dispose() {
         for (State state : states.values()) {
-            state.dispose();
+            if (state.isCreated()) {
+                state.dispose();
+                state.setCreated(false);
+            }
         }
     }
     
     public void loadState(String name) {
+        //states create GL resources, so a change asked for by the simulation thread waits for the next frame
+        if (Thread.currentThread() != renderThread) {
+            pendingState = name;
+            statePending = true;
+            return;
+        }
+        
+        long startTime = TimeUtils.nanoTime();
         unloadState();
         
         if (name != null) {
+            name = routeThroughLoading(name);
             loadedState = states.get(name);
             if (loadedState == null) {
                 Gdx.app.error(StateManager.class.getName(), "State does not exist: " + name);
+                return;
+            }
+            
+            boolean created = false;
+            if (!loadedState.isCreated()) {
+                loadedState.create();
+                loadedState.setCreated(true);
+                created = true;
+            }
+            loadedState.enter();
+            
+            //warm states may have missed a resize while they were away
+            loadedState.resize(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+            
+            transitionTime = TimeUtils.nanoTime() - startTime;
+            Gdx.app.log(StateManager.class.getName(), "Entered state " + name + " in " + (transitionTime / 1000) + "us" + (created ? " (created)" : ""));
+        }
+    }
+    
+    public boolean isStatePending() {
+        return statePending;
+    }
+    
+    public void loadPendingState() {
+        if (statePending) {
+            statePending = false;
+            loadState(pendingState);
+        }
+    }
+    
+    private String routeThroughLoading(String name) {
+        State state = states.get(name);
+        if (state != null && loadingState != null && !name.equals(loadingState)) {
+            String group = state.getAssetGroup();
+            if (group != null && !core.getAssetGroupManager().isLoaded(group)) {
+                ((LoadingState) states.get(loadingState)).setNextState(name);
+                return loadingState;
             }
-            loadedState.start();
         }
+        return name;
     }
     
     public void unloadState() {
         if (loadedState != null) {
-            loadedState.stop();
+            loadedState.exit();
             loadedState = null;
         }
     }
@@ -86,11 +146,23 @@ public class StateManager {
         states.remove(name);
     }
     
+    public long getTransitionTime() {
+        return transitionTime;
+    }
+    
     public State getState(String name) {
         return states.get(name);
     }
 
-    void resize(int width, int height) {
+    public String getLoadingState() {
+        return loadingState;
+    }
+
+    public void setLoadingState(String loadingState) {
+        this.loadingState = loadingState;
+    }
+
+    public void resize(int width, int height) {
         if (loadedState != null) {
             loadedState.resize(width, height);
         }
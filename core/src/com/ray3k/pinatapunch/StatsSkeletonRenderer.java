@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.utils.Array;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonRenderer;
+import com.esotericsoftware.spine.Slot;
+import com.esotericsoftware.spine.attachments.Attachment;
+import com.esotericsoftware.spine.attachments.MeshAttachment;
+import com.esotericsoftware.spine.attachments.RegionAttachment;
+
+public class StatsSkeletonRenderer extends SkeletonRenderer {
+    private final RenderStats renderStats;
+
+    public StatsSkeletonRenderer(RenderStats renderStats) {
+        this.renderStats = renderStats;
+    }
+
+    @Override
+    public void draw(Batch batch, Skeleton skeleton) {
+        int vertices = 0;
+        Array<Slot> drawOrder = skeleton.getDrawOrder();
+        for (int i = 0; i < drawOrder.size; i++) {
+            Attachment attachment = drawOrder.get(i).getAttachment();
+            if (attachment instanceof RegionAttachment) {
+                vertices += 4;
+            } else if (attachment instanceof MeshAttachment) {
+                vertices += ((MeshAttachment) attachment).getWorldVerticesLength() / 2;
+            }
+        }
+        renderStats.addSkeletonVertices(vertices);
+        
+        super.draw(batch, skeleton);
+    }
+}
@@ -28,11 +28,14 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.scenes.scene2d.utils.TiledDrawable;
+import com.ray3k.pinatapunch.ChunkRing;
 import com.ray3k.pinatapunch.Core;
 import com.ray3k.pinatapunch.Entity;
 import com.ray3k.pinatapunch.states.GameState;
 
 public class BackgroundEntity extends Entity {
+    private static final int CHUNK_COUNT = 3;
+    private final ChunkRing chunkRing;
     private TiledDrawable tiledDrawable;
     private float width;
     private float height;
@@ -41,6 +44,7 @@ public class BackgroundEntity extends Entity {
     public BackgroundEntity(GameState gameState) {
         super(gameState.getEntityManager(), gameState.getCore());
         this.gameState = gameState;
+        chunkRing = new ChunkRing(CHUNK_COUNT);
         setDepth(100);
     }
     
@@ -48,13 +52,13 @@ public class BackgroundEntity extends Entity {
     public void create() {
         TextureAtlas atlas = getCore().getAssetManager().get(Core.DATA_PATH + "/spine/pinata-punch.atlas", TextureAtlas.class);
         tiledDrawable = new TiledDrawable(atlas.findRegion("platform"));
+        setTexture(atlas.getTextures().first());
     }
 
     @Override
     public void act(float delta) {
-        if (getY() + height < gameState.getGameCamera().position.y - Gdx.graphics.getHeight() / 2.0f) {
-            dispose();
-        }
+        float cameraX = gameState.getGameCamera().position.x;
+        chunkRing.update(cameraX - Gdx.graphics.getWidth() / 2.0f, cameraX + Gdx.graphics.getWidth() / 2.0f);
     }
 
     @Override
@@ -63,7 +67,16 @@ public class BackgroundEntity extends Entity {
 
     @Override
     public void draw(SpriteBatch spriteBatch, float delta) {
-        tiledDrawable.draw(spriteBatch, getX(), getY(), width, height);
+        float cameraX = gameState.getGameCamera().position.x;
+        float left = cameraX - Gdx.graphics.getWidth() / 2.0f;
+        float right = cameraX + Gdx.graphics.getWidth() / 2.0f;
+        
+        for (int i = 0; i < chunkRing.getCount(); i++) {
+            float x = chunkRing.getChunkX(i);
+            if (x < right && x + width > left) {
+                tiledDrawable.draw(spriteBatch, x, getY(), width, height);
+            }
+        }
     }
 
     @Override
@@ -80,6 +93,12 @@ public class BackgroundEntity extends Entity {
 
     public void setWidth(float width) {
         this.width = width;
+        chunkRing.reset(getX() + width / 2.0f, width);
+    }
+
+    public void setChunkWidth(float width) {
+        this.width = width;
+        chunkRing.setChunkWidth(width);
     }
 
     public float getHeight() {
@@ -89,5 +108,9 @@ public class BackgroundEntity extends Entity {
     public void setHeight(float height) {
         this.height = height;
     }
+
+    public ChunkRing getChunkRing() {
+        return chunkRing;
+    }
     
 }
@@ -1,12 +1,3 @@
-package com.ray3k.pinatapunch.entities;
-
-
-import com.badlogic.gdx.graphics.g2d.ParticleEffect;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.ray3k.pinatapunch.Core;
-import com.ray3k.pinatapunch.Entity;
-import com.ray3k.pinatapunch.states.GameState;
-
 /*
  * The MIT License
  *
@@ -30,16 +21,19 @@ import com.ray3k.pinatapunch.states.GameState;
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
+package com.ray3k.pinatapunch.entities;
 
-public class ConfettiEntity extends Entity {
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.ray3k.pinatapunch.Entity;
+import com.ray3k.pinatapunch.states.GameState;
+
+//draws the confetti and candies enemies burst into, in the depth layer they had as entities
+public class BurstLayerEntity extends Entity {
     private GameState gameState;
-    private ParticleEffect effect;
     
-    public ConfettiEntity(GameState gameState) {
+    public BurstLayerEntity(GameState gameState) {
         super(gameState.getEntityManager(), gameState.getCore());
         this.gameState = gameState;
-        effect = new ParticleEffect(getCore().getAssetManager().get(Core.DATA_PATH + "/particles/confetti.p", ParticleEffect.class));
-        effect.start();
     }
     
     @Override
@@ -48,11 +42,6 @@ public class ConfettiEntity extends Entity {
 
     @Override
     public void act(float delta) {
-        effect.setPosition(getX(), getY());
-        effect.update(delta);
-        if (effect.isComplete()) {
-            dispose();
-        }
     }
 
     @Override
@@ -61,7 +50,8 @@ public class ConfettiEntity extends Entity {
 
     @Override
     public void draw(SpriteBatch spriteBatch, float delta) {
-        effect.draw(spriteBatch, delta);
+        getCore().getEffectManager().draw(spriteBatch);
+        gameState.getCandyManager().draw(spriteBatch, delta);
     }
 
     @Override
@@ -71,5 +61,5 @@ public class ConfettiEntity extends Entity {
     @Override
     public void collision(Entity other) {
     }
-    
+
 }
@@ -24,7 +24,12 @@
 
 package com.ray3k.pinatapunch.entities;
 
+import com.badlogic.gdx.ai.fsm.DefaultStateMachine;
+import com.badlogic.gdx.ai.fsm.StateMachine;
+import com.badlogic.gdx.ai.steer.SteeringAcceleration;
+import com.badlogic.gdx.ai.steer.behaviors.Arrive;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.esotericsoftware.spine.AnimationState;
@@ -37,6 +42,7 @@ import com.esotericsoftware.spine.Skin;
 import com.esotericsoftware.spine.attachments.PointAttachment;
 import com.ray3k.pinatapunch.Core;
 import com.ray3k.pinatapunch.Entity;
+import com.ray3k.pinatapunch.SteeringBody;
 import com.ray3k.pinatapunch.states.GameState;
 
 public class EnemyEntity extends Entity {
@@ -47,20 +53,40 @@ public class EnemyEntity extends Entity {
     private Mode mode;
     private Type type;
     private static final float RECOVERY_REST_TIME = .75f;
-    private static final float MINIMUM_SPACING = 100.0f;
+    private static final float CULL_RADIUS = 400.0f;
+    private static final float ARRIVAL_TOLERANCE = 1.0f;
+    private static final float DECELERATION_RADIUS = 20.0f;
+    private static final float TIME_TO_TARGET = .05f;
+    private static final float ACCELERATION_SCALE = 20.0f;
     private int points;
     private float attackMoveSpeed;
     private int hits;
     private float recoveryTimer;
     private float recoveryMoveSpeed;
     private float recoveryTargetX;
+    private final StateMachine<EnemyEntity, EnemyState> stateMachine;
+    private final SteeringBody body;
+    private final SteeringBody steeringTarget;
+    private final Arrive<Vector2> arrive;
+    private final SteeringAcceleration<Vector2> steeringOutput;
+    private String attackSkin;
     
     public static enum Mode {
         RIGHT, LEFT, NONE
     }
     
     public static enum Type {
-        DONKEY, SPIKE_BALL, HAT
+        DONKEY("game"), SPIKE_BALL("enemy-spike"), HAT("enemy-hat");
+        
+        private final String assetGroup;
+        
+        private Type(String assetGroup) {
+            this.assetGroup = assetGroup;
+        }
+
+        public String getAssetGroup() {
+            return assetGroup;
+        }
     }
     
     public EnemyEntity(GameState gameState, Type type, float attackMoveSpeed) {
@@ -88,6 +114,13 @@ public class EnemyEntity extends Entity {
         }
         
         skeleton = new Skeleton(skeletonData);
+        setTexture(getCore().getAssetManager().get(Core.DATA_PATH + "/spine/pinata-punch.atlas", TextureAtlas.class).getTextures().first());
+        //enemies are tested by their origin and don't react to contact, the player does
+        setCheckingCollisions(true);
+        setCollisionCategory(COLLISION_ENEMY);
+        setCollisionMask(0);
+        getCollisionBox().setSize(1.0f, 1.0f);
+        setCullRadius(CULL_RADIUS);
         AnimationStateData animationStateData = new AnimationStateData(skeletonData);
         animationStateData.setDefaultMix(.25f);
         
@@ -101,18 +134,16 @@ public class EnemyEntity extends Entity {
             @Override
             public void event(AnimationState.TrackEntry entry, Event event) {
                 if (event.getData().getName().equals("death")) {
-                    ConfettiEntity confet = new ConfettiEntity(EnemyEntity.this.gameState);
                     PointAttachment confetPoint = (PointAttachment) skeleton.getAttachment("confetti", "confetti");
                     Vector2 location = confetPoint.computeWorldPosition(skeleton.findBone("body"), new Vector2());
-                    confet.setPosition(location.x, location.y);
+                    getCore().getEffectManager().spawn(Core.EFFECT_CONFETTI, location.x, location.y);
                     
                     for (int i = 0; i < 5; i++) {
-                        CandyEntity candy = new CandyEntity(EnemyEntity.this.gameState);
-                        candy.setPosition(location.x, location.y);
-                        candy.setMotion(MathUtils.random(700.0f), MathUtils.random(45.0f, 135.0f));
+                        EnemyEntity.this.gameState.getCandyManager().spawn(location.x, location.y, MathUtils.random(700.0f), MathUtils.random(45.0f, 135.0f));
                     }
+                    EnemyEntity.this.gameState.bringBurstsToFront();
                     
-                    EnemyEntity.this.gameState.addScore(points);
+                    getCore().getEventQueue().postScore(points);
                 }
             }
 
@@ -125,6 +156,16 @@ public class EnemyEntity extends Entity {
         });
         
         recoveryTimer = -1;
+        
+        body = new SteeringBody();
+        steeringTarget = new SteeringBody();
+        arrive = new Arrive<Vector2>(body, steeringTarget);
+        arrive.setArrivalTolerance(ARRIVAL_TOLERANCE);
+        arrive.setDecelerationRadius(DECELERATION_RADIUS);
+        arrive.setTimeToTarget(TIME_TO_TARGET);
+        steeringOutput = new SteeringAcceleration<Vector2>(new Vector2());
+        
+        stateMachine = new DefaultStateMachine<EnemyEntity, EnemyState>(this, EnemyState.CHASE);
     }
 
     @Override
@@ -139,23 +180,6 @@ public class EnemyEntity extends Entity {
         animationState.apply(skeleton);
         skeletonBounds.update(skeleton, true);
         
-        for (Entity entity : gameState.getEntityManager().getEntities()) {
-            if (entity instanceof EnemyEntity && !entity.equals(this)) {
-                EnemyEntity enemy = (EnemyEntity) entity;
-                if (enemy.getAnimationState().getCurrent(1) == null || !enemy.getAnimationState().getCurrent(1).getAnimation().equals("die")) {
-                    if (skeleton.getFlipX()) {
-                        if (getX() < enemy.getX() && getX() > enemy.getX() - MINIMUM_SPACING) {
-                            setX(enemy.getX() - MINIMUM_SPACING);
-                        }
-                    } else {
-                        if (getX() > enemy.getX() && getX() < enemy.getX() + MINIMUM_SPACING) {
-                            setX(enemy.getX() + MINIMUM_SPACING);
-                        }
-                    }
-                }
-            }
-        }
-        
         skeleton.setFlipX(getX() < gameState.getPlayer().getX());
         
         if (recoveryTimer > 0) {
@@ -163,29 +187,55 @@ public class EnemyEntity extends Entity {
             if (recoveryTimer <= 0) {
                 recoveryTimer = -1;
             }
-            
-            moveTowardsPoint(recoveryTargetX, getY(), recoveryMoveSpeed, delta);
-        } else {
-            if (getX() < gameState.getPlayer().getX()) {
-                moveTowardsPoint(gameState.getPlayer().getX() - 10.0f, getY(), attackMoveSpeed, delta);
-            } else {
-                moveTowardsPoint(gameState.getPlayer().getX() + 10.0f, getY(), attackMoveSpeed, delta);
-            }
         }
         
+        body.getPosition().set(getX(), getY());
+        arrive.calculateSteering(steeringOutput);
+        body.update(steeringOutput, delta);
+        setPosition(body.getPosition().x, body.getPosition().y);
+    }
+    
+    public void think() {
+        stateMachine.update();
+    }
+    
+    void steerTowardsPlayer() {
+        if (getX() < gameState.getPlayer().getX()) {
+            steerTowards(gameState.getPlayer().getX() - 10.0f, attackMoveSpeed);
+        } else {
+            steerTowards(gameState.getPlayer().getX() + 10.0f, attackMoveSpeed);
+        }
+    }
+    
+    void steerTowardsRecovery() {
+        steerTowards(recoveryTargetX, recoveryMoveSpeed);
+    }
+    
+    private void steerTowards(float x, float speed) {
+        steeringTarget.getPosition().set(x, getY());
+        body.setMaxLinearSpeed(speed);
+        body.setMaxLinearAcceleration(speed * ACCELERATION_SCALE);
+    }
+    
+    boolean isRecovered() {
+        return recoveryTimer <= 0;
+    }
+    
+    void updateAttackSkin() {
         float distance = Math.abs(getX() - gameState.getPlayer().getX());
         
-        if (!gameState.getPlayer().getAnimationState().getCurrent(0).getAnimation().getName().equals("hit") && animationState.getCurrent(1) == null && distance < PlayerEntity.ATTACK_DISTANCE) {
-            if (getX() < gameState.getPlayer().getX()) {
-                skeleton.setSkin((Skin) null);
-                skeleton.setSkin("left");
-            } else {
-                skeleton.setSkin((Skin) null);
-                skeleton.setSkin("right");
-            }
+        if (!gameState.getPlayer().getAnimationState().getCurrent(0).getAnimation().getName().equals("hit") && distance < PlayerEntity.ATTACK_DISTANCE) {
+            setAttackSkin(getX() < gameState.getPlayer().getX() ? "left" : "right");
         } else {
+            setAttackSkin("none");
+        }
+    }
+    
+    void setAttackSkin(String skin) {
+        if (!skin.equals(attackSkin)) {
             skeleton.setSkin((Skin) null);
-            skeleton.setSkin("none");
+            skeleton.setSkin(skin);
+            attackSkin = skin;
         }
     }
 
@@ -201,7 +251,7 @@ public class EnemyEntity extends Entity {
 
     @Override
     public void destroy() {
-        
+        gameState.getEnemyManager().remove(this);
     }
 
     @Override
@@ -228,7 +278,7 @@ public class EnemyEntity extends Entity {
         if (hits > 0) {
             hits--;
             if (hits <= 0) {
-                animationState.setAnimation(1, "die", false);
+                stateMachine.changeState(EnemyState.DIE);
             } else {
                 recoveryTimer = RECOVERY_REST_TIME;
                 if (type == Type.HAT) {
@@ -244,9 +294,18 @@ public class EnemyEntity extends Entity {
                         recoveryTargetX = gameState.getPlayer().getX() - PlayerEntity.ATTACK_DISTANCE + .1f;
                     }
                 }
+                stateMachine.changeState(EnemyState.RECOVER);
             }
         }
     }
+    
+    public boolean isDying() {
+        return stateMachine.isInState(EnemyState.DIE);
+    }
+
+    public StateMachine<EnemyEntity, EnemyState> getStateMachine() {
+        return stateMachine;
+    }
 
     public Type getType() {
         return type;
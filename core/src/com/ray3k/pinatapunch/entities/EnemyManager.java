@@ -0,0 +1,174 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.entities;
+
+import com.badlogic.gdx.ai.sched.LoadBalancingScheduler;
+import com.badlogic.gdx.ai.sched.Schedulable;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+import java.util.Comparator;
+
+public class EnemyManager {
+    private static final float MINIMUM_SPACING = 100.0f;
+    private static final int DRY_RUN_FRAMES = 100;
+    private final Array<EnemyEntity> enemies;
+    private final Array<EnemyEntity> sorted;
+    private final Comparator<EnemyEntity> xComparator;
+    private LoadBalancingScheduler scheduler;
+    private int frequency;
+    private long budget;
+    private int thinkCount;
+    private int deferredCount;
+
+    //enemies are split into one slice per tick of the think frequency, the scheduler runs each slice on its own tick
+    private class Slice implements Schedulable {
+        private final int index;
+        private int cursor;
+
+        public Slice(int index) {
+            this.index = index;
+        }
+
+        //a slice that runs out of time picks up where it stopped on its next turn, so no enemy is starved
+        @Override
+        public void run(long nanoTimeToRun) {
+            long startTime = TimeUtils.nanoTime();
+            int count = (enemies.size - index + frequency - 1) / frequency;
+            if (cursor >= count) {
+                cursor = 0;
+            }
+            
+            for (int i = 0; i < count; i++) {
+                if (i > 0 && TimeUtils.nanoTime() - startTime > nanoTimeToRun) {
+                    deferredCount += count - i;
+                    return;
+                }
+                
+                enemies.get(index + cursor * frequency).think();
+                thinkCount++;
+                cursor = (cursor + 1) % count;
+            }
+        }
+    }
+
+    public EnemyManager(int frequency, long budget) {
+        enemies = new Array<EnemyEntity>();
+        sorted = new Array<EnemyEntity>();
+        xComparator = new Comparator<EnemyEntity>() {
+            @Override
+            public int compare(EnemyEntity o1, EnemyEntity o2) {
+                return Float.compare(o1.getX(), o2.getX());
+            }
+        };
+        setSchedule(frequency, budget);
+    }
+
+    //the budget is in nanoseconds for every tick, enemies think once every frequency ticks
+    public void setSchedule(int frequency, long budget) {
+        this.frequency = frequency;
+        this.budget = budget;
+        scheduler = new LoadBalancingScheduler(DRY_RUN_FRAMES);
+        for (int i = 0; i < frequency; i++) {
+            scheduler.addWithAutomaticPhasing(new Slice(i), frequency);
+        }
+    }
+
+    public void add(EnemyEntity enemy) {
+        enemies.add(enemy);
+        sorted.add(enemy);
+        enemy.think();
+    }
+
+    public void remove(EnemyEntity enemy) {
+        enemies.removeValue(enemy, true);
+        sorted.removeValue(enemy, true);
+    }
+
+    public void clear() {
+        enemies.clear();
+        sorted.clear();
+    }
+
+    public void act(float targetX) {
+        applySpacing(targetX);
+        scheduler.run(budget);
+    }
+
+    //enemies queue up behind the one closer to the target, so each side is walked outwards from the target after one sort
+    private void applySpacing(float targetX) {
+        sorted.sort(xComparator);
+        
+        int split = 0;
+        while (split < sorted.size && sorted.get(split).getX() < targetX) {
+            split++;
+        }
+        
+        float limit = Float.POSITIVE_INFINITY;
+        for (int i = split - 1; i >= 0; i--) {
+            EnemyEntity enemy = sorted.get(i);
+            if (!enemy.isDying()) {
+                if (enemy.getX() > limit) {
+                    enemy.setX(limit);
+                }
+                limit = enemy.getX() - MINIMUM_SPACING;
+            }
+        }
+        
+        limit = Float.NEGATIVE_INFINITY;
+        for (int i = split; i < sorted.size; i++) {
+            EnemyEntity enemy = sorted.get(i);
+            if (!enemy.isDying()) {
+                if (enemy.getX() < limit) {
+                    enemy.setX(limit);
+                }
+                limit = enemy.getX() + MINIMUM_SPACING;
+            }
+        }
+    }
+
+    public Array<EnemyEntity> getEnemies() {
+        return enemies;
+    }
+
+    public int getFrequency() {
+        return frequency;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public int getThinkCount() {
+        return thinkCount;
+    }
+
+    public int getDeferredCount() {
+        return deferredCount;
+    }
+
+    public void resetCounters() {
+        thinkCount = 0;
+        deferredCount = 0;
+    }
+}
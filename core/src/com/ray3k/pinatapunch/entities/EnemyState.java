@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.entities;
+
+import com.badlogic.gdx.ai.fsm.State;
+import com.badlogic.gdx.ai.msg.Telegram;
+
+//decisions only, these run when the scheduler gives the enemy a turn while movement and timers still update every tick
+public enum EnemyState implements State<EnemyEntity> {
+    CHASE {
+        @Override
+        public void update(EnemyEntity enemy) {
+            enemy.steerTowardsPlayer();
+            enemy.updateAttackSkin();
+        }
+    },
+    
+    RECOVER {
+        @Override
+        public void enter(EnemyEntity enemy) {
+            enemy.steerTowardsRecovery();
+        }
+        
+        @Override
+        public void update(EnemyEntity enemy) {
+            if (enemy.isRecovered()) {
+                enemy.getStateMachine().changeState(CHASE);
+            } else {
+                enemy.updateAttackSkin();
+            }
+        }
+    },
+    
+    DIE {
+        @Override
+        public void enter(EnemyEntity enemy) {
+            enemy.setAttackSkin("none");
+            enemy.getAnimationState().setAnimation(1, "die", false);
+        }
+    };
+
+    @Override
+    public void enter(EnemyEntity enemy) {
+    }
+
+    @Override
+    public void update(EnemyEntity enemy) {
+    }
+
+    @Override
+    public void exit(EnemyEntity enemy) {
+    }
+
+    @Override
+    public boolean onMessage(EnemyEntity enemy, Telegram telegram) {
+        return false;
+    }
+}
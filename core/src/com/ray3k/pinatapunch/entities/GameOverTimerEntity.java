@@ -26,7 +26,6 @@ package com.ray3k.pinatapunch.entities;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.ray3k.pinatapunch.Entity;
-import com.ray3k.pinatapunch.states.GameOverState;
 import com.ray3k.pinatapunch.states.GameState;
 
 public class GameOverTimerEntity extends Entity {
@@ -48,8 +47,7 @@ public class GameOverTimerEntity extends Entity {
         time -= delta;
         if (time < 0) {
             dispose();
-            ((GameOverState) getCore().getStateManager().getState("game-over")).setScore(gameState.getScore());
-            getCore().getStateManager().loadState("game-over");
+            getCore().getEventQueue().postStateChange("game-over");
         }
     }
 
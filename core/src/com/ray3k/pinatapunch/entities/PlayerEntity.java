@@ -24,9 +24,9 @@
 
 package com.ray3k.pinatapunch.entities;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.utils.Array;
 import com.esotericsoftware.spine.Animation;
 import com.esotericsoftware.spine.AnimationState;
@@ -38,6 +38,11 @@ import com.esotericsoftware.spine.SkeletonBounds;
 import com.esotericsoftware.spine.SkeletonData;
 import com.ray3k.pinatapunch.Core;
 import com.ray3k.pinatapunch.Entity;
+import com.ray3k.pinatapunch.EntityManager;
+import com.ray3k.pinatapunch.GameEventQueue;
+import com.ray3k.pinatapunch.HitTester;
+import com.ray3k.pinatapunch.InputManager;
+import com.ray3k.pinatapunch.SoundManager.SoundHandle;
 import com.ray3k.pinatapunch.states.GameState;
 
 public class PlayerEntity extends Entity {
@@ -46,12 +51,16 @@ public class PlayerEntity extends Entity {
     private SkeletonBounds skeletonBounds;
     private GameState gameState;
     private static final float HURT_DISTANCE = 50.0f;
+    private static final float CONTACT_REACH = HURT_DISTANCE + 50.0f;
     public static final float ATTACK_DISTANCE = 150.0f;
     private Array<Animation> attackAnimations;
-    private Array<MoveType> moveQueue;
-    private boolean keyIsDown;
-    private EnemyEntity targetEnemy;
+    private long targetEnemy;
     private float attackTargetX;
+    private final GameEventQueue events;
+    private final SoundHandle hitSound;
+    private final SoundHandle punchSound;
+    private final SoundHandle swooshSound;
+    private final Array<EnemyEntity> contacts;
     
     public static enum MoveType {
         LEFT, RIGHT
@@ -60,14 +69,25 @@ public class PlayerEntity extends Entity {
     public PlayerEntity(GameState gameState) {
         super(gameState.getEntityManager(), gameState.getCore());
         this.gameState = gameState;
+        events = getCore().getEventQueue();
+        hitSound = getCore().getSoundManager().getSound(Core.SOUND_HIT);
+        punchSound = getCore().getSoundManager().getSound(Core.SOUND_PUNCH);
+        swooshSound = getCore().getSoundManager().getSound(Core.SOUND_SWOOSH);
         SkeletonData skeletonData = getCore().getAssetManager().get(Core.DATA_PATH + "/spine/player.json", SkeletonData.class);
         skeleton = new Skeleton(skeletonData);
+        setTexture(getCore().getAssetManager().get(Core.DATA_PATH + "/spine/pinata-punch.atlas", TextureAtlas.class).getTextures().first());
+        //contacts are up to two enemy moves old when they are used, so the box reaches past HURT_DISTANCE by more than that
+        setCheckingCollisions(true);
+        setCollisionCategory(COLLISION_PLAYER);
+        setCollisionMask(COLLISION_ENEMY | COLLISION_PICKUP);
+        getCollisionBox().setSize(CONTACT_REACH * 2.0f, CONTACT_REACH * 2.0f);
+        setCollisionBoxX(-CONTACT_REACH);
+        setCollisionBoxY(-CONTACT_REACH);
+        contacts = new Array<EnemyEntity>();
         AnimationStateData animationStateData = new AnimationStateData(skeletonData);
         animationStateData.setDefaultMix(0.0f);
         
         animationState = new AnimationState(animationStateData);
-        animationState.setAnimation(0, "stance", false);
-        animationState.addAnimation(0, "stand", true, 0);
         
         attackAnimations = new Array<Animation>();
         attackAnimations.add(skeletonData.findAnimation("back-flip-kick"));
@@ -97,14 +117,16 @@ public class PlayerEntity extends Entity {
             @Override
             public void event(AnimationState.TrackEntry entry, Event event) {
                 if (event.getData().getName().equals("attack")) {
-                    PlayerEntity.this.gameState.playPunchSound();
-                    if (targetEnemy != null) {
-                        targetEnemy.hit();
-                        targetEnemy = null;
+                    events.postSound(punchSound, .5f);
+                    getCore().getLatencyStats().soundTriggered();
+                    EnemyEntity enemy = getTargetEnemy();
+                    if (enemy != null) {
+                        enemy.hit();
                     }
+                    targetEnemy = EntityManager.NO_HANDLE;
                 } else if (event.getData().getName().equals("sound")) {
                     if (event.getString().equals("swoosh")) {
-                        PlayerEntity.this.gameState.playSwooshSound();
+                        events.postSound(swooshSound, .5f);
                     }
                 }
             }
@@ -112,13 +134,24 @@ public class PlayerEntity extends Entity {
             @Override
             public void complete(AnimationState.TrackEntry entry) {
                 if (entry.getAnimation().getName().equals("stance")) {
-                    PlayerEntity.this.gameState.setSpawnEnemies(true);
+                    events.postSpawn(true);
                 }
             }
         });
         
-        keyIsDown = false;
-        moveQueue = new Array<MoveType>();
+        reset();
+    }
+    
+    public void reset() {
+        skeleton.setToSetupPose();
+        skeleton.setFlipX(false);
+        animationState.clearTracks();
+        animationState.setAnimation(0, "stance", false);
+        animationState.addAnimation(0, "stand", true, 0);
+        
+        targetEnemy = EntityManager.NO_HANDLE;
+        attackTargetX = 0.0f;
+        contacts.clear();
     }
 
     @Override
@@ -133,48 +166,30 @@ public class PlayerEntity extends Entity {
         animationState.apply(skeleton);
         skeletonBounds.update(skeleton, true);
         
-        if (Gdx.input.isKeyPressed(Keys.ESCAPE)) {
-            new GameOverTimerEntity(gameState, .5f);
-        }
+        InputManager inputManager = gameState.getInputManager();
+        MoveType move = peekMove(inputManager);
         
-        if (!keyIsDown && !animationState.getCurrent(0).getAnimation().getName().equals("hit")) {
-            if (Gdx.input.isKeyPressed(Keys.LEFT)) {
-                moveQueue.add(MoveType.LEFT);
-                keyIsDown = true;
-            } else if (Gdx.input.isKeyPressed(Keys.RIGHT)) {
-                moveQueue.add(MoveType.RIGHT);
-                keyIsDown = true;
-            }
-        } else {
-            if (!Gdx.input.isKeyPressed(Keys.LEFT) && !Gdx.input.isKeyPressed(Keys.RIGHT)) {
-                keyIsDown = false;
-            }
+        if (move != null && animationState.getCurrent(0).getAnimation().getName().equals("hit")) {
+            inputManager.clearEvents();
+            move = null;
         }
         
-        if (animationState.getCurrent(0).getAnimation().getName().equals("stand")) {
+        if (animationState.getCurrent(0).getAnimation().getName().equals("stand") && (gameState.isPlayerInvulnerable() || !hurtByContacts())) {
             EnemyEntity closestEnemy = null;
             float closestDistance = ATTACK_DISTANCE;
 
-            for (Entity entity : gameState.getEntityManager().getEntities()) {
-                if (entity instanceof EnemyEntity) {
-                    EnemyEntity enemy = (EnemyEntity) entity;
+            Array<EnemyEntity> enemies = gameState.getEnemyManager().getEnemies();
+            for (int i = 0; i < enemies.size && move != null; i++) {
+                EnemyEntity enemy = enemies.get(i);
 
-                    float distance = Math.abs(getX() - enemy.getX());
+                float distance = Math.abs(getX() - enemy.getX());
 
-                    if (distance < HURT_DISTANCE) {
-                        TrackEntry trackEntry = enemy.getAnimationState().getCurrent(1);
-                        if (trackEntry == null || !trackEntry.getAnimation().getName().equals("die")) {
-                            hurt(enemy);
-                            closestEnemy = null;
-                            break;
-                        }
-                    } else if (distance < closestDistance && moveQueue.size > 0) {
-                        if (enemy.getAnimationState().getCurrent(1) == null || !enemy.getAnimationState().getCurrent(1).getAnimation().getName().equals("die")) {
-                            if (moveQueue.first() == MoveType.LEFT && enemy.getX() < getX()) {
-                                closestEnemy = enemy;
-                            } else if (moveQueue.first() == MoveType.RIGHT && enemy.getX() > getX()) {
-                                closestEnemy = enemy;
-                            }
+                if (distance < closestDistance) {
+                    if (enemy.getAnimationState().getCurrent(1) == null || !enemy.getAnimationState().getCurrent(1).getAnimation().getName().equals("die")) {
+                        if (move == MoveType.LEFT && enemy.getX() < getX()) {
+                            closestEnemy = enemy;
+                        } else if (move == MoveType.RIGHT && enemy.getX() > getX()) {
+                            closestEnemy = enemy;
                         }
                     }
                 }
@@ -182,16 +197,18 @@ public class PlayerEntity extends Entity {
 
             if (closestEnemy != null) {
                 attack(closestEnemy);
-            } else if (moveQueue.size > 0) {
-                miss();
+            } else if (move != null) {
+                miss(move);
             }
         }
+        contacts.clear();
         
-        if (targetEnemy != null) {
-            if (targetEnemy.getX() < getX()) {
-                moveTowardsPoint(targetEnemy.getX() + 50.0f, getY(), 300.0f, delta);
+        EnemyEntity enemy = getTargetEnemy();
+        if (enemy != null) {
+            if (enemy.getX() < getX()) {
+                moveTowardsPoint(enemy.getX() + 50.0f, getY(), 300.0f, delta);
             } else {
-                moveTowardsPoint(targetEnemy.getX() - 50.0f, getY(), 300.0f, delta);
+                moveTowardsPoint(enemy.getX() - 50.0f, getY(), 300.0f, delta);
             }
         }
         
@@ -206,6 +223,7 @@ public class PlayerEntity extends Entity {
     @Override
     public void draw(SpriteBatch spriteBatch, float delta) {
         getCore().getSkeletonRenderer().draw(spriteBatch, skeleton);
+        getCore().getLatencyStats().actionDrawn();
     }
 
     @Override
@@ -215,19 +233,65 @@ public class PlayerEntity extends Entity {
 
     @Override
     public void collision(Entity other) {
+        if (other instanceof EnemyEntity) {
+            contacts.add((EnemyEntity) other);
+        }
     }
     
     public SkeletonBounds getSkeletonBounds() {
         return skeletonBounds;
     }
     
+    public EnemyEntity getTargetEnemy() {
+        return (EnemyEntity) getManager().get(targetEnemy);
+    }
+    
+    private boolean hurtByContacts() {
+        for (int i = 0; i < contacts.size; i++) {
+            EnemyEntity enemy = contacts.get(i);
+            if (!enemy.isDestroyed() && touches(enemy, Math.abs(getX() - enemy.getX()))) {
+                TrackEntry trackEntry = enemy.getAnimationState().getCurrent(1);
+                if (trackEntry == null || !trackEntry.getAnimation().getName().equals("die")) {
+                    hurt(enemy);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    //the distance between origins still hurts until the hitboxes have been confirmed in play
+    private boolean touches(EnemyEntity enemy, float distance) {
+        if (distance < HURT_DISTANCE) {
+            return true;
+        }
+        
+        SkeletonBounds enemyBounds = enemy.getSkeletonBounds();
+        return HitTester.hasPolygons(skeletonBounds) && HitTester.hasPolygons(enemyBounds) && getCore().getHitTester().overlaps(skeletonBounds, enemyBounds);
+    }
+    
+    private MoveType peekMove(InputManager inputManager) {
+        while (inputManager.hasEvents()) {
+            int key = inputManager.getEventKey();
+            if (key == Keys.LEFT) {
+                return MoveType.LEFT;
+            } else if (key == Keys.RIGHT) {
+                return MoveType.RIGHT;
+            } else if (key == Keys.ESCAPE) {
+                new GameOverTimerEntity(gameState, .5f);
+            }
+            inputManager.removeEvent();
+        }
+        return null;
+    }
+    
     private void hurt(EnemyEntity enemy) {
-        moveQueue.clear();
+        gameState.getInputManager().clearEvents();
         
         skeleton.setFlipX(enemy.getX() < getX());
         
         animationState.setAnimation(0, "hit", false);
-        gameState.playHitSound();
+        events.postSound(hitSound, .5f);
         new GameOverTimerEntity(gameState, 5.0f);
     }
     
@@ -236,20 +300,23 @@ public class PlayerEntity extends Entity {
         
         animationState.setAnimation(0, attackAnimations.random(), false);
         animationState.addAnimation(0, "stand", false, 0.0f);
-        moveQueue.removeIndex(0);
-        targetEnemy = enemy;
+        getCore().getLatencyStats().actionStarted(gameState.getInputManager().getEventTime());
+        gameState.getInputManager().removeEvent();
+        targetEnemy = enemy.getHandle();
     }
     
-    private void miss() {
-        gameState.playSwooshSound();
-        skeleton.setFlipX(moveQueue.first() == MoveType.LEFT);
+    private void miss(MoveType move) {
+        getCore().getLatencyStats().actionStarted(gameState.getInputManager().getEventTime());
+        events.postSound(swooshSound, .5f);
+        getCore().getLatencyStats().soundTriggered();
+        skeleton.setFlipX(move == MoveType.LEFT);
         if (skeleton.getFlipX()) {
             skeleton.findBone("sign-miss").setScaleX(-1);
         } else {
             skeleton.findBone("sign-miss").setScaleX(1);
         }
         
-        moveQueue.clear();
+        gameState.getInputManager().clearEvents();
         animationState.setAnimation(0, "miss", false);
         animationState.addAnimation(0, "stand", true, 0.0f);
     }
@@ -0,0 +1,271 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.states;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.ray3k.pinatapunch.AssetGroupManager;
+import com.ray3k.pinatapunch.Core;
+import com.ray3k.pinatapunch.EffectManager;
+import com.ray3k.pinatapunch.RenderStats;
+import com.ray3k.pinatapunch.SpawnDirector;
+import java.io.IOException;
+import java.io.StringWriter;
+
+//plays a seeded horde run with scripted candy showers and confetti bursts, then writes the frame, tick, draw call and heap numbers to a JSON report
+public class BenchmarkState extends GameState {
+    public static final String REPORT_FILE = "benchmark.json";
+    private static final long SEED = 20170714L;
+    private static final String SPAWN_PROFILE = "benchmark";
+    private static final float DURATION = 60.0f;
+    private static final float SHOWER_INTERVAL = 4.0f;
+    private static final int SHOWER_CANDIES = 300;
+    private static final float CONFETTI_INTERVAL = 3.0f;
+    private static final int CONFETTI_BURSTS = 20;
+    private final LongArray frameTimes;
+    private final LongArray tickTimes;
+    private final RenderStats.FrameListener frameListener;
+    private boolean frameSeen;
+    private long drawCallTotal;
+    private int drawCallMax;
+    private long peakHeap;
+    private int peakCandies;
+    private int peakParticles;
+    private float nextShower;
+    private float nextConfetti;
+    private volatile boolean running;
+    private volatile boolean finished;
+    
+    public BenchmarkState(Core core) {
+        super(core);
+        frameTimes = new LongArray(8192);
+        tickTimes = new LongArray((int) (DURATION * 100) + 1);
+        
+        //frames are counted where they are presented, with the simulation thread on, draw only records a snapshot
+        frameListener = new RenderStats.FrameListener() {
+            @Override
+            public void frameEnded(RenderStats renderStats) {
+                if (!running || finished) {
+                    return;
+                }
+                
+                synchronized (frameTimes) {
+                    if (frameSeen) {
+                        frameTimes.add(renderStats.getFrameTime());
+                        int drawCalls = renderStats.getRenderCalls();
+                        drawCallTotal += drawCalls;
+                        drawCallMax = Math.max(drawCallMax, drawCalls);
+                    }
+                    frameSeen = true;
+                }
+            }
+        };
+    }
+    
+    @Override
+    public void enter() {
+        setSpawnProfile(SPAWN_PROFILE);
+        super.enter();
+        
+        //every enemy type has to be in memory before the clock starts, or load times would change the run
+        AssetGroupManager assetGroupManager = getCore().getAssetGroupManager();
+        assetGroupManager.request("enemy-hat");
+        assetGroupManager.request("enemy-spike");
+        
+        synchronized (frameTimes) {
+            frameTimes.clear();
+            frameSeen = false;
+            drawCallTotal = 0;
+            drawCallMax = 0;
+        }
+        tickTimes.clear();
+        peakHeap = 0;
+        peakCandies = 0;
+        peakParticles = 0;
+        nextShower = SHOWER_INTERVAL / 2.0f;
+        nextConfetti = CONFETTI_INTERVAL / 2.0f;
+        running = false;
+        finished = false;
+        getCore().getRenderStats().addFrameListener(frameListener);
+    }
+    
+    @Override
+    public void exit() {
+        super.exit();
+        getCore().getRenderStats().removeFrameListener(frameListener);
+    }
+    
+    @Override
+    public void act(float delta) {
+        if (finished) {
+            return;
+        }
+        
+        if (!running) {
+            AssetGroupManager assetGroupManager = getCore().getAssetGroupManager();
+            if (!assetGroupManager.isLoaded("enemy-hat") || !assetGroupManager.isLoaded("enemy-spike")) {
+                return;
+            }
+            
+            MathUtils.random.setSeed(SEED);
+            getSpawnDirector().reset();
+            setSpawnEnemies(true);
+            running = true;
+        }
+        
+        long start = TimeUtils.nanoTime();
+        super.act(delta);
+        runScript();
+        tickTimes.add(TimeUtils.nanoTime() - start);
+        
+        Runtime runtime = Runtime.getRuntime();
+        peakHeap = Math.max(peakHeap, runtime.totalMemory() - runtime.freeMemory());
+        peakCandies = Math.max(peakCandies, getCandyManager().getCount());
+        peakParticles = Math.max(peakParticles, getCore().getEffectManager().getLiveParticles());
+        
+        if (getSpawnDirector().getTime() >= DURATION) {
+            finish();
+        }
+    }
+    
+    private void runScript() {
+        float time = getSpawnDirector().getTime();
+        OrthographicCamera camera = getGameCamera();
+        float left = camera.position.x - camera.viewportWidth / 2.0f;
+        float bottom = camera.position.y - camera.viewportHeight / 2.0f;
+        
+        if (time >= nextShower) {
+            nextShower += SHOWER_INTERVAL;
+            for (int i = 0; i < SHOWER_CANDIES; i++) {
+                getCandyManager().spawn(left + MathUtils.random(camera.viewportWidth), bottom + camera.viewportHeight, MathUtils.random(300.0f), MathUtils.random(200.0f, 340.0f));
+            }
+        }
+        
+        if (time >= nextConfetti) {
+            nextConfetti += CONFETTI_INTERVAL;
+            for (int i = 0; i < CONFETTI_BURSTS; i++) {
+                getCore().getEffectManager().spawn(Core.EFFECT_CONFETTI, left + MathUtils.random(camera.viewportWidth), bottom + MathUtils.random(camera.viewportHeight));
+            }
+        }
+    }
+    
+    private void finish() {
+        finished = true;
+        String report;
+        synchronized (frameTimes) {
+            report = createReport();
+        }
+        Gdx.files.local(REPORT_FILE).writeString(report, false);
+        Gdx.app.log(BenchmarkState.class.getName(), report);
+        
+        if (getCore().getStartState().equals("benchmark")) {
+            Gdx.app.exit();
+        } else {
+            getCore().getStateManager().loadState("menu");
+        }
+    }
+    
+    private String createReport() {
+        frameTimes.sort();
+        tickTimes.sort();
+        SpawnDirector spawnDirector = getSpawnDirector();
+        EffectManager effectManager = getCore().getEffectManager();
+        
+        StringWriter stringWriter = new StringWriter();
+        JsonWriter writer = new JsonWriter(stringWriter);
+        writer.setOutputType(JsonWriter.OutputType.json);
+        try {
+            writer.object();
+            writer.set("version", Core.VERSION);
+            writer.set("backend", Gdx.app.getType().name());
+            writer.set("java", System.getProperty("java.version"));
+            writer.set("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+            writer.set("simulationThreaded", getCore().isSimulationThreaded());
+            writer.set("seed", SEED);
+            writer.set("duration", DURATION);
+            
+            writer.object("frames");
+            writer.set("count", frameTimes.size);
+            writer.set("p50Ms", percentile(frameTimes, 50));
+            writer.set("p90Ms", percentile(frameTimes, 90));
+            writer.set("p99Ms", percentile(frameTimes, 99));
+            writer.set("maxMs", percentile(frameTimes, 100));
+            writer.pop();
+            
+            writer.object("ticks");
+            writer.set("count", tickTimes.size);
+            writer.set("meanMs", mean(tickTimes));
+            writer.set("p50Ms", percentile(tickTimes, 50));
+            writer.set("p99Ms", percentile(tickTimes, 99));
+            writer.set("maxMs", percentile(tickTimes, 100));
+            writer.pop();
+            
+            writer.object("drawCalls");
+            writer.set("mean", frameTimes.size > 0 ? drawCallTotal / (float) frameTimes.size : 0.0f);
+            writer.set("max", drawCallMax);
+            writer.pop();
+            
+            writer.set("peakHeapKilobytes", peakHeap / 1024);
+            writer.set("enemiesSpawned", spawnDirector.getSpawnedCount());
+            writer.set("peakEnemies", spawnDirector.getPeakEnemies());
+            writer.set("peakCandies", peakCandies);
+            writer.set("peakParticles", peakParticles);
+            writer.set("droppedEffects", effectManager.getDroppedCount());
+            writer.pop();
+            writer.close();
+        } catch (IOException e) {
+            Gdx.app.error(BenchmarkState.class.getName(), "Could not write the benchmark report", e);
+        }
+        return stringWriter.toString();
+    }
+    
+    private float percentile(LongArray sorted, int percent) {
+        if (sorted.size == 0) {
+            return 0.0f;
+        }
+        
+        int index = Math.min(sorted.size - 1, sorted.size * percent / 100);
+        return sorted.get(index) / 1000000.0f;
+    }
+    
+    private float mean(LongArray times) {
+        if (times.size == 0) {
+            return 0.0f;
+        }
+        
+        long total = 0;
+        for (int i = 0; i < times.size; i++) {
+            total += times.get(i);
+        }
+        return total / (float) times.size / 1000000.0f;
+    }
+    
+    public boolean isFinished() {
+        return finished;
+    }
+}
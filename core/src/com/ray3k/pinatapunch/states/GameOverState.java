@@ -26,7 +26,6 @@ package com.ray3k.pinatapunch.states;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Keys;
-import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
@@ -35,33 +34,37 @@ import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.ray3k.pinatapunch.Core;
+import com.ray3k.pinatapunch.NumberLabel;
 import com.ray3k.pinatapunch.State;
 
 public class GameOverState extends State {
     private Stage stage;
     private Skin skin;
     private int score;
-    private int highScore;
+    private NumberLabel scoreLabel;
+    private NumberLabel highScoreLabel;
 
     public GameOverState(Core core) {
         super(core);
-        highScore = 0;
     }
 
     @Override
-    public void start() {
+    public void create() {
         skin = getCore().getAssetManager().get(Core.DATA_PATH + "/ui/pinata-punch.json", Skin.class);
         
-        stage = new Stage(new ScreenViewport());
-        Gdx.input.setInputProcessor(stage);
+        stage = new Stage(new ScreenViewport(), getCore().getSpriteBatch());
         
-        refreshTable();
+        createTable();
+    }
+
+    @Override
+    public void enter() {
+        getCore().setInputProcessor(stage);
     }
 
     @Override
     public void draw(SpriteBatch spriteBatch, float delta) {
-        Gdx.gl.glClearColor(0f, 0f, 0f, 1);
-        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        getCore().clearScreen(spriteBatch, 0f, 0f, 0f);
         stage.draw();
     }
 
@@ -75,14 +78,19 @@ public class GameOverState extends State {
     }
 
     @Override
-    public void stop() {
-        stage.dispose();
+    public void exit() {
     }
 
     @Override
     public void dispose() {
+        stage.dispose();
     }
 
+    @Override
+    public String getAssetGroup() {
+        return "menu";
+    }
+    
     @Override
     public void resize(int width, int height) {
         stage.getViewport().update(width, height, true);
@@ -94,14 +102,14 @@ public class GameOverState extends State {
 
     public void setScore(int score) {
         this.score = score;
-        if (score > highScore) {
-            highScore = score;
+        
+        if (scoreLabel != null) {
+            scoreLabel.setValue(score);
+            highScoreLabel.setValue(getCore().getSaveStore().getHighScore());
         }
     }
     
-    private void refreshTable() {
-        stage.clear();
-        
+    private void createTable() {
         Table root = new Table();
         root.setFillParent(true);
         stage.addActor(root);
@@ -110,14 +118,14 @@ public class GameOverState extends State {
         root.add(label).colspan(2);
         
         root.row();
-        label = new Label("Score\n\n" + score, skin);
-        label.setAlignment(Align.center);
-        root.add(label).pad(20.0f);
+        scoreLabel = new NumberLabel("Score\n\n", score, skin);
+        scoreLabel.setAlignment(Align.center);
+        root.add(scoreLabel).pad(20.0f);
         
         root.row();
-        label = new Label("High Score\n\n" + highScore, skin);
-        label.setAlignment(Align.center);
-        root.add(label).pad(20.0f);
+        highScoreLabel = new NumberLabel("High Score\n\n", getCore().getSaveStore().getHighScore(), skin);
+        highScoreLabel.setAlignment(Align.center);
+        root.add(highScoreLabel).pad(20.0f);
         
         root.row();
         label = new Label("Press space\nto return to menu!", skin);
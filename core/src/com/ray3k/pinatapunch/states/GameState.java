@@ -25,126 +25,275 @@ package com.ray3k.pinatapunch.states;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.InputMultiplexer;
-import com.badlogic.gdx.audio.Sound;
-import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.scenes.scene2d.Stage;
-import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
+import com.ray3k.pinatapunch.AssetGroupManager;
+import com.ray3k.pinatapunch.CandyManager;
 import com.ray3k.pinatapunch.Core;
 import com.ray3k.pinatapunch.EntityManager;
+import com.ray3k.pinatapunch.GameEventQueue;
+import com.ray3k.pinatapunch.GameEventQueue.GameEventListener;
 import com.ray3k.pinatapunch.InputManager;
+import com.ray3k.pinatapunch.NumberLabel;
+import com.ray3k.pinatapunch.RenderStats;
+import com.ray3k.pinatapunch.SpawnDirector;
 import com.ray3k.pinatapunch.State;
 import com.ray3k.pinatapunch.entities.BackgroundEntity;
+import com.ray3k.pinatapunch.entities.BurstLayerEntity;
 import com.ray3k.pinatapunch.entities.EnemyEntity;
+import com.ray3k.pinatapunch.entities.EnemyManager;
 import com.ray3k.pinatapunch.entities.PlayerEntity;
 
 public class GameState extends State {
     private int score;
-    private static int highscore = 0;
     private OrthographicCamera gameCamera;
+    private final Rectangle viewBounds;
     private Viewport gameViewport;
     private OrthographicCamera uiCamera;
     private Viewport uiViewport;
     private InputManager inputManager;
     private Skin skin;
     private Stage stage;
+    private InputMultiplexer inputMultiplexer;
     private Table table;
-    private Label scoreLabel;
+    private NumberLabel scoreLabel;
     private EntityManager entityManager;
+    private CandyManager candyManager;
+    private EnemyManager enemyManager;
+    private static final int AI_FREQUENCY = 3;
+    private static final long AI_BUDGET = 1000000L;
+    private static final float COLLISION_LOG_INTERVAL = 5.0f;
+    private float collisionLogTimer;
+    private long prunedPairs;
+    private long testedPairs;
     private PlayerEntity player;
-    private float spawnTimer;
-    private float spawnDelay;
-    private float spawnDelayChange;
-    private static final float SPAWN_DELAY_MINIMUM = .5f;
+    private BackgroundEntity background;
+    private BurstLayerEntity burstLayer;
+    private SpawnDirector spawnDirector;
+    private String spawnProfile;
     private boolean spawnEnemies;
-    private float hatTimer;
-    private float spikeTimer;
-    private int worldEdgeLeft;
-    private int worldEdgeRight;
+    private static final float ENEMY_PRELOAD_TIME = 10.0f;
+    private EnemyStream hatStream;
+    private EnemyStream spikeStream;
+    private GameEventListener eventListener;
     
     public static enum Team {
         PLAYER, ENEMY;
     }
     
+    private class EnemyStream {
+        private final EnemyEntity.Type type;
+        private boolean ready;
+        private float lateTime;
+        private float leadTime;
+        
+        public EnemyStream(EnemyEntity.Type type) {
+            this.type = type;
+        }
+        
+        public void reset(float timer) {
+            ready = false;
+            lateTime = 0;
+            leadTime = 0;
+            update(timer, 0);
+        }
+        
+        public void update(float timer, float delta) {
+            if (!ready) {
+                AssetGroupManager assetGroupManager = getCore().getAssetGroupManager();
+                if (timer <= ENEMY_PRELOAD_TIME) {
+                    assetGroupManager.request(type.getAssetGroup());
+                }
+                
+                if (timer <= 0) {
+                    lateTime += delta;
+                }
+                
+                if (assetGroupManager.isLoaded(type.getAssetGroup())) {
+                    ready = true;
+                    leadTime = timer > 0 ? timer : -lateTime;
+                    Gdx.app.log(GameState.class.getName(), type + " assets ready " + leadTime + "s ahead of need");
+                }
+            }
+        }
+    }
+    
     public GameState(Core core) {
         super(core);
+        hatStream = new EnemyStream(EnemyEntity.Type.HAT);
+        spikeStream = new EnemyStream(EnemyEntity.Type.SPIKE_BALL);
+        viewBounds = new Rectangle();
+        
+        //kills in the same tick are added up so the score label only changes once
+        eventListener = new GameEventListener() {
+            @Override
+            public void handle(GameEventQueue events) {
+                int points = 0;
+                String nextState = null;
+                
+                for (int i = 0; i < events.getSize(); i++) {
+                    GameEventQueue.Type type = events.getType(i);
+                    if (type == GameEventQueue.Type.SCORE) {
+                        points += events.getInt(i);
+                    } else if (type == GameEventQueue.Type.SPAWN) {
+                        spawnEnemies = events.getInt(i) != 0;
+                    } else if (type == GameEventQueue.Type.STATE_CHANGE) {
+                        nextState = (String) events.getObject(i);
+                    }
+                }
+                
+                if (points != 0) {
+                    addScore(points);
+                }
+                
+                if (nextState != null) {
+                    if (nextState.equals("game-over")) {
+                        getCore().getSaveStore().submitScore(score);
+                        ((GameOverState) getCore().getStateManager().getState("game-over")).setScore(score);
+                    }
+                    getCore().getStateManager().loadState(nextState);
+                }
+            }
+        };
+        
+        candyManager = new CandyManager(256);
+        enemyManager = new EnemyManager(AI_FREQUENCY, AI_BUDGET);
     }
     
     @Override
-    public void start() {
-        spawnDelay = 2.0f;
-        spawnTimer = 0.0f;
-        spawnDelayChange = .01f;
+    public void create() {
+        inputManager = new InputManager(getCore());
+        
+        uiCamera = new OrthographicCamera();
+        uiViewport = new ScreenViewport(uiCamera);
         
-        hatTimer = 15.0f;
+        gameCamera = new OrthographicCamera();
+        gameViewport = new ScreenViewport(gameCamera);
         
-        spikeTimer = 30.0f;
+        skin = getCore().getAssetManager().get(Core.DATA_PATH + "/ui/pinata-punch.json", Skin.class);
+        stage = new Stage(new ScreenViewport(), getCore().getSpriteBatch());
         
-        score = 0;
+        inputMultiplexer = new InputMultiplexer();
+        inputMultiplexer.addProcessor(inputManager);
+        inputMultiplexer.addProcessor(stage);
         
-        inputManager = new InputManager(); 
+        table = new Table();
+        table.setFillParent(true);
+        stage.addActor(table);
+        
+        createStageElements();
+        
+        spawnDirector = new SpawnDirector(new JsonReader().parse(Gdx.files.local(Core.DATA_PATH + "/spawns.json")), new SpawnDirector.Spawner() {
+            @Override
+            public boolean isReady(EnemyEntity.Type type) {
+                if (type == EnemyEntity.Type.HAT) {
+                    return hatStream.ready;
+                } else if (type == EnemyEntity.Type.SPIKE_BALL) {
+                    return spikeStream.ready;
+                } else {
+                    return true;
+                }
+            }
+            
+            @Override
+            public void spawn(EnemyEntity.Type type) {
+                generateEnemy(type);
+            }
+            
+            @Override
+            public int getEnemyCount() {
+                return enemyManager.getEnemies().size;
+            }
+            
+            @Override
+            public int getEntityCount() {
+                return entityManager.getEntityCount();
+            }
+        });
+        
+        entityManager = new EntityManager();
+        player = new PlayerEntity(this);
+        background = new BackgroundEntity(this);
+        burstLayer = new BurstLayerEntity(this);
+    }
+    
+    @Override
+    public void enter() {
+        getCore().getLatencyStats().reset();
+        
+        spawnDirector.setProfile(spawnProfile != null ? spawnProfile : getCore().getData().getString("spawnProfile", "normal"));
+        
+        hatStream.reset(spawnDirector.getTimeUntil(EnemyEntity.Type.HAT));
+        spikeStream.reset(spawnDirector.getTimeUntil(EnemyEntity.Type.SPIKE_BALL));
+        
+        score = 0;
+        scoreLabel.setValue(0);
         
-        uiCamera = new OrthographicCamera();
-        uiViewport = new ScreenViewport(uiCamera);
         uiViewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
         uiViewport.apply();
         
         uiCamera.position.set(uiCamera.viewportWidth / 2, uiCamera.viewportHeight / 2, 0);
         
-        gameCamera = new OrthographicCamera();
-        gameViewport = new ScreenViewport(gameCamera);
         gameViewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
         gameViewport.apply();
         
         gameCamera.position.set(gameCamera.viewportWidth / 2, gameCamera.viewportHeight / 2, 0);
         
-        skin = getCore().getAssetManager().get(Core.DATA_PATH + "/ui/pinata-punch.json", Skin.class);
-        stage = new Stage(new ScreenViewport());
+        inputManager.clearEvents();
+        getCore().setInputProcessor(inputMultiplexer);
         
-        InputMultiplexer inputMultiplexer = new InputMultiplexer();
-        inputMultiplexer.addProcessor(inputManager);
-        inputMultiplexer.addProcessor(stage);
-        Gdx.input.setInputProcessor(inputMultiplexer);
+        //only the state that is playing listens, so the game and the benchmark don't score each other's runs
+        getCore().getEventQueue().subscribe(eventListener, GameEventQueue.Type.SCORE, GameEventQueue.Type.SPAWN, GameEventQueue.Type.STATE_CHANGE);
         
-        table = new Table();
-        table.setFillParent(true);
-        stage.addActor(table);
+        candyManager.clear();
+        candyManager.clearRegions();
+        for (String name : getCore().getImagePacks().get(Core.DATA_PATH + "/candy")) {
+            candyManager.addRegion(getCore().findRegion(name));
+        }
         
-        entityManager = new EntityManager();
+        resetWorld();
         
-        createStageElements();
+        spawnEnemies = false;
+    }
+    
+    private void resetWorld() {
+        entityManager.clear();
+        enemyManager.clear();
+        enemyManager.resetCounters();
+        collisionLogTimer = COLLISION_LOG_INTERVAL;
+        prunedPairs = 0;
+        testedPairs = 0;
         
-        player = new PlayerEntity(this);
+        player.revive();
+        player.reset();
         player.setPosition(Gdx.graphics.getWidth() / 2.0f, 250);
+        entityManager.addEntity(player);
         
-        worldEdgeLeft = 0;
-        worldEdgeRight = MathUtils.ceil(Gdx.graphics.getWidth() / 76.0f) * 76;
-        BackgroundEntity bg = new BackgroundEntity(this);
-        bg.setPosition(0.0f, 0.0f);
-        bg.setWidth(worldEdgeRight);
-        bg.setHeight(329.0f);
+        background.revive();
+        background.setPosition(0.0f, 0.0f);
+        background.setWidth(MathUtils.ceil(Gdx.graphics.getWidth() / 76.0f) * 76);
+        background.setHeight(329.0f);
+        entityManager.addEntity(background);
         
-        spawnEnemies = false;
+        burstLayer.revive();
+        entityManager.addEntity(burstLayer);
     }
     
     public void generateEnemy() {
-        Array<EnemyEntity.Type> enemyTypes = new Array<EnemyEntity.Type>();
-        enemyTypes.add(EnemyEntity.Type.DONKEY);
-        if (hatTimer <= 0) {
-            enemyTypes.add(EnemyEntity.Type.HAT);
-        }
-        if (spikeTimer <= 0) {
-            enemyTypes.add(EnemyEntity.Type.SPIKE_BALL);
-        }
-        
-        EnemyEntity enemy = new EnemyEntity(this, enemyTypes.random(), 200.0f);
+        spawnDirector.spawn(null);
+    }
+    
+    public void generateEnemy(EnemyEntity.Type type) {
+        EnemyEntity enemy = new EnemyEntity(this, type, 200.0f);
         if (MathUtils.randomBoolean()) {
             enemy.setPosition(gameCamera.position.x + Gdx.graphics.getWidth() / 2.0f, 250);
         } else {
@@ -152,10 +301,7 @@ public class GameState extends State {
             enemy.getSkeleton().setFlipX(true);
         }
         enemy.setMode(EnemyEntity.Mode.NONE);
-        spawnDelay -= spawnDelayChange;
-        if (spawnDelay < SPAWN_DELAY_MINIMUM) {
-            spawnDelay = SPAWN_DELAY_MINIMUM;
-        }
+        enemyManager.add(enemy);
     }
     
     private void createStageElements() {
@@ -163,72 +309,76 @@ public class GameState extends State {
         root.setFillParent(true);
         stage.addActor(root);
         
-        scoreLabel = new Label("0", skin, "score");
+        scoreLabel = new NumberLabel(0, skin, "score");
         root.add(scoreLabel).expandY().padTop(25.0f).top();
     }
     
     @Override
     public void draw(SpriteBatch spriteBatch, float delta) {
-        Gdx.gl.glClearColor(28 / 256f, 32 / 256f, 86 /256f, 1);
-        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        getCore().clearScreen(spriteBatch, 28 / 256f, 32 / 256f, 86 /256f);
         
         gameCamera.update();
+        viewBounds.set(gameCamera.position.x - gameCamera.viewportWidth / 2.0f, gameCamera.position.y - gameCamera.viewportHeight / 2.0f, gameCamera.viewportWidth, gameCamera.viewportHeight);
+        
+        RenderStats renderStats = getCore().getRenderStats();
+        renderStats.beginSection(RenderStats.Section.WORLD);
         spriteBatch.setProjectionMatrix(gameCamera.combined);
+        //the stage shares this batch and can leave it tinted
+        spriteBatch.setColor(Color.WHITE);
         spriteBatch.begin();
-        entityManager.draw(spriteBatch, delta);
+        entityManager.draw(spriteBatch, delta, viewBounds);
         spriteBatch.end();
+        renderStats.addEntities(entityManager.getDrawnCount(), entityManager.getCulledCount());
         
+        renderStats.beginSection(RenderStats.Section.UI);
         stage.draw();
     }
 
     @Override
     public void act(float delta) {
+        enemyManager.act(player.getX());
         entityManager.act(delta);
+        logCollisions(delta);
+        getCore().getEffectManager().act(delta);
+        candyManager.act(delta);
         
         stage.act(delta);
         
-        hatTimer -= delta;
-        if (hatTimer <= 0) {
-            hatTimer = 0;
-        }
-        
-        spikeTimer -= delta;
-        if (spikeTimer <= 0) {
-            spikeTimer = 0;
-        }
+        hatStream.update(spawnDirector.getTimeUntil(EnemyEntity.Type.HAT), delta);
+        spikeStream.update(spawnDirector.getTimeUntil(EnemyEntity.Type.SPIKE_BALL), delta);
         
-        if (spawnEnemies) {
-            spawnTimer -= delta;
-            if (spawnTimer <= 0) {
-                generateEnemy();
-                spawnTimer = spawnDelay;
-            }
-        }
-        
-        if (gameCamera.position.x + Gdx.graphics.getWidth() / 2.0f > worldEdgeRight) {
-            BackgroundEntity bg = new BackgroundEntity(this);
-            bg.setPosition(worldEdgeRight, 0.0f);
-            bg.setWidth(MathUtils.ceil(Gdx.graphics.getWidth() / 76.0f) * 76);
-            bg.setHeight(329.0f);
-            worldEdgeRight += bg.getWidth();
-        }
-        
-        if (gameCamera.position.x - Gdx.graphics.getWidth() / 2.0f < worldEdgeLeft) {
-            BackgroundEntity bg = new BackgroundEntity(this);
-            bg.setWidth(MathUtils.ceil(Gdx.graphics.getWidth() / 76.0f) * 76);
-            bg.setPosition(worldEdgeLeft - bg.getWidth(), 0.0f);
-            bg.setHeight(329.0f);
-            worldEdgeLeft -= bg.getWidth();
+        spawnDirector.act(delta, spawnEnemies);
+    }
+
+    private void logCollisions(float delta) {
+        prunedPairs += entityManager.getPrunedPairCount();
+        testedPairs += entityManager.getPairTestCount();
+        collisionLogTimer -= delta;
+        if (collisionLogTimer <= 0) {
+            collisionLogTimer += COLLISION_LOG_INTERVAL;
+            Gdx.app.log(GameState.class.getName(), "Collisions: " + testedPairs + " pairs tested, " + prunedPairs + " pruned by mask in the last " + (int) COLLISION_LOG_INTERVAL + "s");
+            prunedPairs = 0;
+            testedPairs = 0;
         }
     }
 
     @Override
     public void dispose() {
+        stage.dispose();
     }
 
     @Override
-    public void stop() {
-        stage.dispose();
+    public void exit() {
+        getCore().getEventQueue().unsubscribe(eventListener);
+        getCore().getEffectManager().clear();
+        getCore().getLatencyStats().log();
+        spawnDirector.log();
+        Gdx.app.log(GameState.class.getName(), "Enemy AI: " + enemyManager.getThinkCount() + " decisions, " + enemyManager.getDeferredCount() + " deferred to a later tick");
+    }
+    
+    @Override
+    public String getAssetGroup() {
+        return "game";
     }
     
     @Override
@@ -239,12 +389,29 @@ public class GameState extends State {
         uiViewport.update(width, height);
         uiCamera.position.set(uiCamera.viewportWidth / 2, uiCamera.viewportHeight / 2, 0);
         stage.getViewport().update(width, height, true);
+        
+        if (background != null) {
+            background.setChunkWidth(MathUtils.ceil(width / 76.0f) * 76);
+        }
     }
 
     public EntityManager getEntityManager() {
         return entityManager;
     }
 
+    //the latest burst is drawn in front of every enemy already on screen, as its candies were when they were entities
+    public void bringBurstsToFront() {
+        entityManager.bringToFront(burstLayer);
+    }
+    
+    public CandyManager getCandyManager() {
+        return candyManager;
+    }
+
+    public EnemyManager getEnemyManager() {
+        return enemyManager;
+    }
+
     public InputManager getInputManager() {
         return inputManager;
     }
@@ -255,32 +422,14 @@ public class GameState extends State {
 
     public void setScore(int score) {
         this.score = score;
-        scoreLabel.setText(Integer.toString(score));
-        if (score > highscore) {
-            highscore = score;
-        }
+        scoreLabel.setValue(score);
     }
     
     public void addScore(int score) {
         this.score += score;
-        scoreLabel.setText(Integer.toString(this.score));
-        if (this.score > highscore) {
-            highscore = this.score;
-        }
-    }
-    
-    public void playHitSound() {
-        getCore().getAssetManager().get(Core.DATA_PATH + "/sfx/hit.wav", Sound.class).play(.5f);
+        scoreLabel.setValue(this.score);
     }
     
-    public void playPunchSound() {
-        getCore().getAssetManager().get(Core.DATA_PATH + "/sfx/punch.wav", Sound.class).play(.5f);
-    }
-    
-    public void playSwooshSound() {
-        getCore().getAssetManager().get(Core.DATA_PATH + "/sfx/swoosh.wav", Sound.class).play(.5f);
-    }
-
     public OrthographicCamera getGameCamera() {
         return gameCamera;
     }
@@ -301,6 +450,32 @@ public class GameState extends State {
         return player;
     }
 
+    public float getEnemyLeadTime(EnemyEntity.Type type) {
+        if (type == EnemyEntity.Type.HAT) {
+            return hatStream.leadTime;
+        } else if (type == EnemyEntity.Type.SPIKE_BALL) {
+            return spikeStream.leadTime;
+        } else {
+            return 0;
+        }
+    }
+
+    public SpawnDirector getSpawnDirector() {
+        return spawnDirector;
+    }
+
+    public String getSpawnProfile() {
+        return spawnProfile;
+    }
+
+    public void setSpawnProfile(String spawnProfile) {
+        this.spawnProfile = spawnProfile;
+    }
+
+    public boolean isPlayerInvulnerable() {
+        return spawnDirector.getProfile().isInvulnerable();
+    }
+
     public boolean isSpawnEnemies() {
         return spawnEnemies;
     }
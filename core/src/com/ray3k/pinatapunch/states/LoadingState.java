@@ -1,18 +1,11 @@
 package com.ray3k.pinatapunch.states;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.assets.AssetManager;
-import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.Stage;
-import com.badlogic.gdx.scenes.scene2d.actions.DelayAction;
-import com.badlogic.gdx.scenes.scene2d.actions.SequenceAction;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.ProgressBar;
 import com.badlogic.gdx.scenes.scene2d.ui.ProgressBar.ProgressBarStyle;
@@ -22,6 +15,7 @@ import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Scaling;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.ray3k.pinatapunch.AssetGroupManager;
 import com.ray3k.pinatapunch.Core;
 import com.ray3k.pinatapunch.State;
 
@@ -47,10 +41,8 @@ public class LoadingState extends State {
     }
     
     @Override
-    public void start() {
-        finishedLoading = false;
-        
-        stage = new Stage(new ScreenViewport());
+    public void create() {
+        stage = new Stage(new ScreenViewport(), getCore().getSpriteBatch());
         
         skin = createSkin();
         
@@ -67,6 +59,21 @@ public class LoadingState extends State {
         progressBar.setAnimateDuration(.1f);
         root.add(progressBar).growX().expandY().pad(20.0f);
     }
+    
+    @Override
+    public void enter() {
+        finishedLoading = false;
+        
+        String group = getNextGroup();
+        if (group != null) {
+            getCore().getAssetGroupManager().request(group);
+        }
+        getCore().getAssetGroupManager().setUpdateMillis(Core.LOADING_UPDATE_MILLIS);
+        
+        progressBar.setAnimateDuration(0.0f);
+        progressBar.setValue(0.0f);
+        progressBar.setAnimateDuration(.1f);
+    }
 
     @Override
     public void draw(SpriteBatch spriteBatch, float delta) {
@@ -75,44 +82,48 @@ public class LoadingState extends State {
 
     @Override
     public void act(float delta) {
-        AssetManager assetManager = getCore().getAssetManager();
-        progressBar.setValue(assetManager.getProgress());
+        AssetGroupManager assetGroupManager = getCore().getAssetGroupManager();
+        String group = getNextGroup();
+        progressBar.setValue(group == null ? 1.0f : assetGroupManager.getProgress(group));
         stage.act(delta);
-        if (!finishedLoading && assetManager.update()) {
-            Action changeStateAction = new Action() {
-                @Override
-                public boolean act(float delta) {
-                    if (nextState != null) {
-                        finishedLoading = true;
-                        packPixmaps();
-                        getCore().getStateManager().loadState(nextState);
-                    }
-                    return true;
-                }
-            };
-            root.addAction(new SequenceAction(new DelayAction(1.0f), changeStateAction));
+        
+        //only the next state's own group has to be ready, everything else keeps streaming in the background
+        if (!finishedLoading && nextState != null && (group == null || assetGroupManager.isLoaded(group))) {
+            finishedLoading = true;
+            getCore().getStateManager().loadState(nextState);
+        }
+    }
+    
+    private String getNextGroup() {
+        if (nextState == null) {
+            return null;
+        } else {
+            return getCore().getStateManager().getState(nextState).getAssetGroup();
         }
     }
 
     @Override
     public void dispose() {
-        
+        stage.dispose();
+        skin.dispose();
     }
     
-    private Drawable createDrawable(int width, int height, Color color) {
+    private void addDrawable(Skin skin, String name, int width, int height, Color color) {
         Pixmap pixmap = new Pixmap(width, height, Pixmap.Format.RGBA8888);
         pixmap.setColor(color);
         pixmap.fillRectangle(0, 0, width, height);
         Texture texture = new Texture(pixmap);
-        return new TextureRegionDrawable(new TextureRegion(texture));
+        pixmap.dispose();
+        skin.add(name, texture);
+        skin.add(name, new TextureRegionDrawable(new TextureRegion(texture)), Drawable.class);
     }
     
     private Skin createSkin() {
         Skin returnValue = new Skin();
         
-        returnValue.add("bg", createDrawable(20, 20, Color.DARK_GRAY), Drawable.class);
-        returnValue.add("progress-bar-back", createDrawable(20, 20, Color.BLACK), Drawable.class);
-        returnValue.add("progress-bar", createDrawable(1, 20, Color.BLUE), Drawable.class);
+        addDrawable(returnValue, "bg", 20, 20, Color.DARK_GRAY);
+        addDrawable(returnValue, "progress-bar-back", 20, 20, Color.BLACK);
+        addDrawable(returnValue, "progress-bar", 1, 20, Color.BLUE);
         
         ProgressBarStyle progressBarStyle = new ProgressBarStyle();
         progressBarStyle.background = returnValue.getDrawable("progress-bar-back");
@@ -123,24 +134,9 @@ public class LoadingState extends State {
         return returnValue;
     }
     
-    private void packPixmaps() {
-        for (String directory : getCore().getImagePacks().keys()) {
-            for (String name : getCore().getImagePacks().get(directory)) {
-                FileHandle file = Gdx.files.local(directory + "/" + name + ".png");
-                getCore().getPixmapPacker().pack(file.nameWithoutExtension(), getCore().getAssetManager().get(file.path(), Pixmap.class));
-            }
-        }
-        
-        getCore().getPixmapPacker().pack("white", getCore().getAssetManager().get(Core.DATA_PATH + "/gfx/white.png", Pixmap.class));
-        
-        TextureAtlas atlas = getCore().getPixmapPacker().generateTextureAtlas(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear, false);
-        getCore().setAtlas(atlas);
-    }
-
     @Override
-    public void stop() {
-        stage.dispose();
-        skin.dispose();
+    public void exit() {
+        getCore().getAssetGroupManager().setUpdateMillis(Core.STREAMING_UPDATE_MILLIS);
     }
     
     @Override
@@ -24,12 +24,10 @@
 package com.ray3k.pinatapunch.states;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.audio.Sound;
-import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.ui.Button;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
@@ -37,65 +35,77 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.Align;
-import com.badlogic.gdx.utils.JsonReader;
-import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.ray3k.pinatapunch.Core;
+import com.ray3k.pinatapunch.SoundManager.SoundHandle;
 import com.ray3k.pinatapunch.State;
 
 public class MenuState extends State {
     private Stage stage;
     private Skin skin;
     private Table root;
+    private Array<Button> buttons;
+    private SoundHandle punchSound;
 
     public MenuState(Core core) {
         super(core);
+        punchSound = core.getSoundManager().getSound(Core.SOUND_PUNCH);
     }
     
     @Override
-    public void start() {
+    public void create() {
         skin = getCore().getAssetManager().get(Core.DATA_PATH + "/ui/pinata-punch.json", Skin.class);
-        stage = new Stage(new ScreenViewport());
-        
-        Gdx.input.setInputProcessor(stage);
+        stage = new Stage(new ScreenViewport(), getCore().getSpriteBatch());
+        buttons = new Array<Button>();
         
         createMenu();
     }
     
-    private void createMenu() {
-        FileHandle fileHandle = Gdx.files.local(Core.DATA_PATH + "/data.json");
-        JsonReader reader = new JsonReader();
-        JsonValue val = reader.parse(fileHandle);
+    @Override
+    public void enter() {
+        //the buttons were left checked by the click that took us away from the menu
+        for (Button button : buttons) {
+            button.setChecked(false);
+        }
         
+        getCore().setInputProcessor(stage);
+    }
+    
+    private void createMenu() {
         root = new Table();
         root.setFillParent(true);
         stage.addActor(root);
         
-        Label label = new Label(val.getString("title"), skin, "title");
+        Label label = new Label(getCore().getData().getString("title"), skin, "title");
         label.setAlignment(Align.center);
         root.add(label).padBottom(50.0f).padTop(100.0f);
         
         root.defaults().space(50.0f);
         root.row();
         TextButton textButtton = new TextButton("play", skin);
+        textButtton.setProgrammaticChangeEvents(false);
+        buttons.add(textButtton);
         root.add(textButtton);
         
         textButtton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                getCore().getAssetManager().get(Core.DATA_PATH + "/sfx/punch.wav", Sound.class).play(.25f);
+                getCore().getSoundManager().play(punchSound, .25f);
                 getCore().getStateManager().loadState("game");
             }
         });
         
         root.row();
         textButtton = new TextButton("Quit", skin);
+        textButtton.setProgrammaticChangeEvents(false);
+        buttons.add(textButtton);
         root.add(textButtton);
         
         textButtton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                getCore().getAssetManager().get(Core.DATA_PATH + "/sfx/punch.wav", Sound.class).play(.25f);
+                getCore().getSoundManager().play(punchSound, .25f);
                 Gdx.app.exit();
             }
         });
@@ -103,8 +113,7 @@ public class MenuState extends State {
     
     @Override
     public void draw(SpriteBatch spriteBatch, float delta) {
-        Gdx.gl.glClearColor(0, 0, 0, 1);
-        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        getCore().clearScreen(spriteBatch, 0, 0, 0);
         stage.draw();
     }
 
@@ -115,12 +124,16 @@ public class MenuState extends State {
 
     @Override
     public void dispose() {
-        
+        stage.dispose();
     }
 
     @Override
-    public void stop() {
-        stage.dispose();
+    public void exit() {
+    }
+    
+    @Override
+    public String getAssetGroup() {
+        return "menu";
     }
     
     @Override
@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.desktop;
+
+import com.ray3k.pinatapunch.ChunkRing;
+import java.util.Random;
+
+public class BackgroundSoak {
+    private static final int SCREEN_WIDTH = 800;
+    private static final int CHUNK_COUNT = 3;
+    private static final int TICKS = 10000000;
+    private static final float MAX_CAMERA_SPEED = 30.0f;
+    
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : TICKS;
+        float chunkWidth = (float) Math.ceil(SCREEN_WIDTH / 76.0f) * 76;
+        ChunkRing chunkRing = new ChunkRing(CHUNK_COUNT);
+        chunkRing.reset(chunkWidth / 2.0f, chunkWidth);
+        
+        Random random = new Random(33);
+        float cameraX = SCREEN_WIDTH / 2.0f;
+        float direction = 1.0f;
+        float farthest = 0.0f;
+        int failures = 0;
+        long heapBefore = usedHeap();
+        
+        for (int i = 0; i < ticks; i++) {
+            if (random.nextInt(100000) == 0) {
+                direction = -direction;
+            }
+            cameraX += direction * random.nextFloat() * MAX_CAMERA_SPEED;
+            farthest = Math.max(farthest, Math.abs(cameraX));
+            
+            float left = cameraX - SCREEN_WIDTH / 2.0f;
+            float right = cameraX + SCREEN_WIDTH / 2.0f;
+            chunkRing.update(left, right);
+            
+            if (chunkRing.getLeft() > left || chunkRing.getRight() < right) {
+                failures++;
+            }
+        }
+        
+        long heapAfter = usedHeap();
+        System.out.println("Background soak: " + ticks + " ticks, farthest camera distance " + (long) farthest + "px");
+        System.out.println("  chunks " + chunkRing.getCount() + ", repositions " + chunkRing.getRepositionCount() + ", uncovered ticks " + failures);
+        System.out.println("  heap before " + heapBefore / 1024 + "KB, after " + heapAfter / 1024 + "KB");
+        
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,35 @@
+package com.ray3k.pinatapunch.desktop;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.ray3k.pinatapunch.CandyManager;
+import java.util.Arrays;
+
+public class CandyBenchmark {
+    private static final int CANDIES = 50000;
+    private static final int WARMUP_TICKS = 500;
+    private static final int TICKS = 3000;
+    private static final float DELTA = .01f;
+    
+    public static void main(String[] arg) {
+        int candies = arg.length > 0 ? Integer.parseInt(arg[0]) : CANDIES;
+        CandyManager candyManager = new CandyManager(candies);
+        long[] times = new long[TICKS];
+        
+        for (int i = 0; i < WARMUP_TICKS + TICKS; i++) {
+            //culled candies are replaced so the live count stays at the target
+            while (candyManager.getCount() < candies) {
+                candyManager.spawn(MathUtils.random(800.0f), 250.0f, MathUtils.random(700.0f), MathUtils.random(45.0f, 135.0f));
+            }
+            
+            long start = System.nanoTime();
+            candyManager.act(DELTA);
+            if (i >= WARMUP_TICKS) {
+                times[i - WARMUP_TICKS] = System.nanoTime() - start;
+            }
+        }
+        
+        Arrays.sort(times);
+        System.out.println("Candy benchmark: " + candies + " live candies, " + TICKS + " ticks");
+        System.out.println("  p50 " + times[TICKS / 2] / 1000 + "us, p95 " + times[TICKS * 95 / 100] / 1000 + "us, p99 " + times[TICKS * 99 / 100] / 1000 + "us, max " + times[TICKS - 1] / 1000 + "us");
+    }
+}
@@ -9,6 +9,14 @@ public class DesktopLauncher {
 		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
                 config.width = 800;
                 config.height = 700;
-		new LwjglApplication(new Core(), config);
+                Core core = new Core();
+                
+                //frames aren't held back by vsync while benchmarking
+                if (arg.length > 0 && arg[0].equals("benchmark")) {
+                    config.vSyncEnabled = false;
+                    config.foregroundFPS = 0;
+                    core.setStartState("benchmark");
+                }
+		new LwjglApplication(core, config);
 	}
 }
@@ -0,0 +1,275 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.desktop;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.core.PooledEngine;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Pool.Poolable;
+import com.ray3k.pinatapunch.Core;
+import com.ray3k.pinatapunch.EntityManager;
+import java.util.Arrays;
+
+//keeps a steady population of falling candies alive in EntityManager and in an Ashley engine and times act and draw
+public class EcsBenchmark {
+    private static final int[] COUNTS = {1000, 5000, 20000};
+    private static final int WARMUP_TICKS = 100;
+    private static final int TICKS = 300;
+    private static final float DELTA = .01f;
+    private static final float GRAVITY = 700.0f;
+    private static final float KILL_Y = -200.0f;
+    private static final ComponentMapper<TransformComponent> transformMapper = ComponentMapper.getFor(TransformComponent.class);
+    private static final ComponentMapper<MotionComponent> motionMapper = ComponentMapper.getFor(MotionComponent.class);
+    private static final ComponentMapper<SpriteComponent> spriteMapper = ComponentMapper.getFor(SpriteComponent.class);
+    private static TextureRegion[] regions;
+    
+    public static void main(String[] args) {
+        MockGL.install(800, 600);
+        
+        Core core = new Core();
+        core.initManagers();
+        SpriteBatch spriteBatch = core.getSpriteBatch();
+        regions = new TextureRegion[] {createRegion(), createRegion()};
+        Rectangle view = new Rectangle(0, 0, 800, 600);
+        
+        for (int count : COUNTS) {
+            MathUtils.random.setSeed(42);
+            EntityManager entityManager = new EntityManager();
+            long[][] classic = new long[2][TICKS];
+            int alive = 0;
+            for (int i = 0; i < WARMUP_TICKS + TICKS; i++) {
+                while (alive < count) {
+                    spawn(entityManager);
+                    alive++;
+                }
+                
+                long start = System.nanoTime();
+                entityManager.act(DELTA);
+                long acted = System.nanoTime();
+                spriteBatch.begin();
+                entityManager.draw(spriteBatch, 0.0f, view);
+                spriteBatch.end();
+                long drawn = System.nanoTime();
+                
+                alive -= CandyEntity.destroyedCount;
+                CandyEntity.destroyedCount = 0;
+                if (i >= WARMUP_TICKS) {
+                    classic[0][i - WARMUP_TICKS] = acted - start;
+                    classic[1][i - WARMUP_TICKS] = drawn - acted;
+                }
+            }
+            
+            MathUtils.random.setSeed(42);
+            PooledEngine engine = new PooledEngine();
+            engine.addSystem(new MotionSystem());
+            ImmutableArray<Entity> sprites = engine.getEntitiesFor(Family.all(TransformComponent.class, SpriteComponent.class).get());
+            long[][] ecs = new long[2][TICKS];
+            for (int i = 0; i < WARMUP_TICKS + TICKS; i++) {
+                while (engine.getEntities().size() < count) {
+                    spawn(engine);
+                }
+                
+                long start = System.nanoTime();
+                engine.update(DELTA);
+                long acted = System.nanoTime();
+                spriteBatch.begin();
+                for (int j = 0; j < sprites.size(); j++) {
+                    Entity entity = sprites.get(j);
+                    TransformComponent transform = transformMapper.get(entity);
+                    TextureRegion region = spriteMapper.get(entity).region;
+                    if (view.contains(transform.x, transform.y)) {
+                        spriteBatch.draw(region, transform.x, transform.y, region.getRegionWidth() / 2.0f, region.getRegionHeight() / 2.0f, region.getRegionWidth(), region.getRegionHeight(), 1.0f, 1.0f, transform.rotation);
+                    }
+                }
+                spriteBatch.end();
+                long drawn = System.nanoTime();
+                
+                if (i >= WARMUP_TICKS) {
+                    ecs[0][i - WARMUP_TICKS] = acted - start;
+                    ecs[1][i - WARMUP_TICKS] = drawn - acted;
+                }
+            }
+            
+            System.out.println(count + " entities, " + TICKS + " ticks");
+            print("  EntityManager act ", classic[0]);
+            print("  EntityManager draw", classic[1]);
+            print("  Ashley act        ", ecs[0]);
+            print("  Ashley draw       ", ecs[1]);
+        }
+        
+        System.exit(0);
+    }
+    
+    private static void print(String name, long[] times) {
+        Arrays.sort(times);
+        System.out.println(name + ": p50 " + times[times.length / 2] / 1000 + "us, p99 " + times[times.length * 99 / 100] / 1000 + "us");
+    }
+    
+    private static void spawn(EntityManager entityManager) {
+        CandyEntity candy = new CandyEntity(entityManager);
+        candy.setTextureRegion(regions[MathUtils.random(regions.length - 1)]);
+        candy.setOffsetX(candy.getTextureRegion().getRegionWidth() / 2.0f);
+        candy.setOffsetY(candy.getTextureRegion().getRegionHeight() / 2.0f);
+        candy.setPosition(MathUtils.random(800.0f), MathUtils.random(300.0f, 600.0f));
+        candy.setMotion(MathUtils.random(700.0f), MathUtils.random(45.0f, 135.0f));
+        candy.setGravityY(-GRAVITY);
+        candy.rotationSpeed = MathUtils.random(-300.0f, 300.0f);
+    }
+    
+    private static void spawn(PooledEngine engine) {
+        Entity entity = engine.createEntity();
+        
+        TransformComponent transform = engine.createComponent(TransformComponent.class);
+        transform.x = MathUtils.random(800.0f);
+        transform.y = MathUtils.random(300.0f, 600.0f);
+        entity.add(transform);
+        
+        float speed = MathUtils.random(700.0f);
+        float direction = MathUtils.random(45.0f, 135.0f);
+        MotionComponent motion = engine.createComponent(MotionComponent.class);
+        motion.xSpeed = speed * MathUtils.cosDeg(direction);
+        motion.ySpeed = speed * MathUtils.sinDeg(direction);
+        motion.rotationSpeed = MathUtils.random(-300.0f, 300.0f);
+        entity.add(motion);
+        
+        SpriteComponent sprite = engine.createComponent(SpriteComponent.class);
+        sprite.region = regions[MathUtils.random(regions.length - 1)];
+        entity.add(sprite);
+        
+        engine.addEntity(entity);
+    }
+    
+    private static TextureRegion createRegion() {
+        Pixmap pixmap = new Pixmap(16, 16, Pixmap.Format.RGBA8888);
+        Texture texture = new Texture(pixmap);
+        pixmap.dispose();
+        return new TextureRegion(texture);
+    }
+    
+    private static class CandyEntity extends com.ray3k.pinatapunch.Entity {
+        private static int destroyedCount;
+        private float rotationSpeed;
+        
+        public CandyEntity(EntityManager manager) {
+            super(manager, null);
+        }
+
+        @Override
+        public void create() {
+        }
+
+        @Override
+        public void act(float delta) {
+            addRotation(rotationSpeed * delta);
+            if (getY() < KILL_Y) {
+                dispose();
+            }
+        }
+
+        @Override
+        public void act_end(float delta) {
+        }
+
+        @Override
+        public void draw(SpriteBatch spriteBatch, float delta) {
+            TextureRegion region = getTextureRegion();
+            spriteBatch.draw(region, getX(), getY(), getOffsetX(), getOffsetY(), region.getRegionWidth(), region.getRegionHeight(), 1.0f, 1.0f, getRotation());
+        }
+
+        @Override
+        public void destroy() {
+            destroyedCount++;
+        }
+
+        @Override
+        public void collision(com.ray3k.pinatapunch.Entity other) {
+        }
+    }
+    
+    public static class TransformComponent implements Component, Poolable {
+        public float x;
+        public float y;
+        public float rotation;
+
+        @Override
+        public void reset() {
+            x = 0.0f;
+            y = 0.0f;
+            rotation = 0.0f;
+        }
+    }
+    
+    public static class MotionComponent implements Component, Poolable {
+        public float xSpeed;
+        public float ySpeed;
+        public float rotationSpeed;
+
+        @Override
+        public void reset() {
+            xSpeed = 0.0f;
+            ySpeed = 0.0f;
+            rotationSpeed = 0.0f;
+        }
+    }
+    
+    public static class SpriteComponent implements Component, Poolable {
+        public TextureRegion region;
+
+        @Override
+        public void reset() {
+            region = null;
+        }
+    }
+    
+    private static class MotionSystem extends IteratingSystem {
+        public MotionSystem() {
+            super(Family.all(TransformComponent.class, MotionComponent.class).get());
+        }
+
+        @Override
+        protected void processEntity(Entity entity, float deltaTime) {
+            TransformComponent transform = transformMapper.get(entity);
+            MotionComponent motion = motionMapper.get(entity);
+            
+            motion.ySpeed -= GRAVITY * deltaTime;
+            transform.x += motion.xSpeed * deltaTime;
+            transform.y += motion.ySpeed * deltaTime;
+            transform.rotation += motion.rotationSpeed * deltaTime;
+            
+            if (transform.y < KILL_Y) {
+                getEngine().removeEntity(entity);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.desktop;
+
+import com.badlogic.gdx.utils.TimeUtils;
+import com.ray3k.pinatapunch.AssetGroupManager;
+import com.ray3k.pinatapunch.Core;
+import com.ray3k.pinatapunch.entities.EnemyManager;
+import com.ray3k.pinatapunch.states.GameState;
+import java.util.Arrays;
+
+//times GameState ticks with crowds of enemies, thinking every tick against the scheduled frequency and budget
+public class EnemyAiBenchmark {
+    private static final int[] ENEMY_COUNTS = {100, 300, 600};
+    private static final int TICKS = 150;
+    private static final int WARMUP_RUNS = 2;
+    private static final float TICK = .01f;
+    
+    public static void main(String[] args) {
+        MockGL.install(800, 600);
+        
+        Core core = new Core();
+        core.initManagers();
+        core.loadAssets();
+        AssetGroupManager assetGroupManager = core.getAssetGroupManager();
+        assetGroupManager.request("enemy-hat");
+        assetGroupManager.request("enemy-spike");
+        while (!assetGroupManager.update()) {
+        }
+        
+        core.getStateManager().loadState("game");
+        GameState gameState = (GameState) core.getStateManager().getState("game");
+        EnemyManager enemyManager = gameState.getEnemyManager();
+        int frequency = enemyManager.getFrequency();
+        long budget = enemyManager.getBudget();
+        
+        for (int enemies : ENEMY_COUNTS) {
+            System.out.println(enemies + " enemies, " + TICKS + " ticks");
+            enemyManager.setSchedule(1, Long.MAX_VALUE);
+            run(gameState, enemies, "  Every tick");
+            enemyManager.setSchedule(frequency, budget);
+            run(gameState, enemies, "  Scheduled ");
+        }
+        
+        System.exit(0);
+    }
+    
+    private static void run(GameState gameState, int enemies, String name) {
+        long[] times = new long[TICKS];
+        for (int run = 0; run <= WARMUP_RUNS; run++) {
+            gameState.exit();
+            gameState.enter();
+            for (int i = 0; i < enemies; i++) {
+                gameState.generateEnemy();
+            }
+            
+            for (int i = 0; i < TICKS; i++) {
+                long start = TimeUtils.nanoTime();
+                gameState.act(TICK);
+                times[i] = TimeUtils.nanoTime() - start;
+            }
+        }
+        
+        EnemyManager enemyManager = gameState.getEnemyManager();
+        Arrays.sort(times);
+        System.out.println(name + ": act p50 " + times[TICKS / 2] / 1000 + "us, p99 " + times[TICKS * 99 / 100] / 1000 + "us, " + enemyManager.getThinkCount() + " decisions, " + enemyManager.getDeferredCount() + " deferred");
+    }
+}
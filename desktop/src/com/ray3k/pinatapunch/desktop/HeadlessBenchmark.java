@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.desktop;
+
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.ray3k.pinatapunch.Core;
+
+//runs the benchmark state on the headless backend, the report is written to benchmark.json
+public class HeadlessBenchmark {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 700;
+    
+    public static void main(String[] args) {
+        final Core core = new Core();
+        core.setStartState("benchmark");
+        
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        //paced like a 60Hz display, frames only run long when the ticks can't keep up
+        config.renderInterval = 1.0f / 60.0f;
+        
+        //the headless backend has no GL and a zero sized screen, so both are replaced before the game is created
+        new HeadlessApplication(new ApplicationListener() {
+            @Override
+            public void create() {
+                MockGL.installGraphics(WIDTH, HEIGHT);
+                core.create();
+                core.resize(WIDTH, HEIGHT);
+            }
+
+            @Override
+            public void resize(int width, int height) {
+            }
+
+            @Override
+            public void render() {
+                core.render();
+            }
+
+            @Override
+            public void pause() {
+                core.pause();
+            }
+
+            @Override
+            public void resume() {
+                core.resume();
+            }
+
+            @Override
+            public void dispose() {
+                core.dispose();
+            }
+        }, config);
+    }
+}
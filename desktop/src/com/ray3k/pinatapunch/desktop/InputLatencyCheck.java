@@ -0,0 +1,143 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.desktop;
+
+import com.badlogic.gdx.Input.Keys;
+import com.badlogic.gdx.utils.Array;
+import com.esotericsoftware.spine.AnimationState.TrackEntry;
+import com.ray3k.pinatapunch.Core;
+import com.ray3k.pinatapunch.InputManager;
+import com.ray3k.pinatapunch.LatencyStats;
+import com.ray3k.pinatapunch.entities.EnemyEntity;
+import com.ray3k.pinatapunch.entities.PlayerEntity;
+import com.ray3k.pinatapunch.states.GameState;
+import java.util.Random;
+
+//presses keys at random points between frames, once with nothing in reach and once with an enemy in reach, and checks that every press is acted on within the next frame
+public class InputLatencyCheck {
+    private static final int PRESSES = 100;
+    private static final int FRAME_MILLIS = 16;
+    private static final long MAX_LATENCY_MILLIS = FRAME_MILLIS * 2;
+    private static final int MAX_SETTLE_FRAMES = 500;
+    private static final float ENEMY_DISTANCE = (PlayerEntity.ATTACK_DISTANCE + 50.0f) / 2.0f;
+    
+    public static void main(String[] args) throws InterruptedException {
+        MockGL.install(800, 600);
+        
+        Core core = new Core();
+        core.create();
+        while (!core.getAssetGroupManager().isLoaded("game")) {
+            core.render();
+        }
+        
+        //the stress profile keeps the player from being hurt by the enemies placed in reach
+        GameState gameState = (GameState) core.getStateManager().getState("game");
+        gameState.setSpawnProfile("stress");
+        core.getStateManager().loadState("game");
+        
+        Random random = new Random(40);
+        boolean passed = run("Misses", core, gameState, random, false);
+        passed &= run("Attacks", core, gameState, random, true);
+        System.out.println(passed ? "PASSED" : "FAILED");
+        
+        if (!passed) {
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+    
+    private static boolean run(String name, Core core, GameState gameState, Random random, boolean attack) throws InterruptedException {
+        InputManager inputManager = gameState.getInputManager();
+        LatencyStats latencyStats = core.getLatencyStats();
+        latencyStats.reset();
+        int matched = 0;
+        
+        for (int i = 0; i < PRESSES; i++) {
+            gameState.setSpawnEnemies(false);
+            
+            int frames = 0;
+            while (!isStanding(gameState) && frames++ < MAX_SETTLE_FRAMES) {
+                Thread.sleep(FRAME_MILLIS);
+                core.render();
+            }
+            
+            boolean left = i % 2 == 0;
+            EnemyEntity target = null;
+            Array<EnemyEntity> enemies = gameState.getEnemyManager().getEnemies();
+            for (int j = enemies.size - 1; j >= 0; j--) {
+                enemies.get(j).dispose();
+            }
+            if (attack) {
+                gameState.generateEnemy(EnemyEntity.Type.DONKEY);
+                target = gameState.getEnemyManager().getEnemies().peek();
+                PlayerEntity player = gameState.getPlayer();
+                target.setPosition(player.getX() + (left ? -ENEMY_DISTANCE : ENEMY_DISTANCE), player.getY());
+            }
+            
+            int pressDelay = random.nextInt(FRAME_MILLIS);
+            Thread.sleep(pressDelay);
+            inputManager.keyDown(left ? Keys.LEFT : Keys.RIGHT);
+            Thread.sleep(FRAME_MILLIS - pressDelay);
+            core.render();
+            
+            if (gameState.getPlayer().getTargetEnemy() == target) {
+                matched++;
+            }
+        }
+        
+        //an attack's punch sound comes from the animation's attack event, so its frames are played out before reporting it
+        for (int frames = 0; !isStanding(gameState) && frames < MAX_SETTLE_FRAMES; frames++) {
+            Thread.sleep(FRAME_MILLIS);
+            core.render();
+        }
+        
+        System.out.println(name);
+        latencyStats.log();
+        
+        System.out.println("  " + matched + " of " + PRESSES + " presses " + (attack ? "attacked the enemy in reach" : "missed"));
+        boolean returnValue = matched == PRESSES;
+        for (LatencyStats.Stage stage : LatencyStats.Stage.values()) {
+            long p99 = latencyStats.getPercentile(stage, .99f) / 1000000;
+            if (attack && stage == LatencyStats.Stage.SOUND) {
+                if (latencyStats.getCount(stage) == 0) {
+                    System.out.println("  sound: skipped, no attack event fired so no punch sound was played");
+                } else {
+                    System.out.println("  sound: " + latencyStats.getCount(stage) + " samples, p99 " + p99 + "ms, not checked as it follows the animation");
+                }
+                continue;
+            }
+            
+            System.out.println("  " + stage.name().toLowerCase() + ": " + latencyStats.getCount(stage) + " samples, p99 " + p99 + "ms");
+            if (latencyStats.getCount(stage) != PRESSES || p99 > MAX_LATENCY_MILLIS) {
+                returnValue = false;
+            }
+        }
+        return returnValue;
+    }
+    
+    private static boolean isStanding(GameState gameState) {
+        TrackEntry entry = gameState.getPlayer().getAnimationState().getCurrent(0);
+        return entry != null && entry.getAnimation().getName().equals("stand");
+    }
+}
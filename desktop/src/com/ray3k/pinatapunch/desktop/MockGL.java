@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.desktop;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.backends.lwjgl.LwjglFiles;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+//installs no-op stand-ins for Gdx.app, Gdx.graphics, Gdx.gl, Gdx.input and Gdx.audio so the game can run without a window
+public class MockGL {
+    public static void install(final int width, final int height) {
+        GdxNativesLoader.load();
+        installGraphics(width, height);
+        
+        Gdx.app = (Application) Proxy.newProxyInstance(Application.class.getClassLoader(), new Class<?>[] {Application.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.equals("getType")) {
+                    return Application.ApplicationType.HeadlessDesktop;
+                } else if ((name.equals("log") || name.equals("error")) && args.length >= 2) {
+                    System.out.println("[" + args[0] + "] " + args[1]);
+                    return null;
+                } else if (name.equals("getGraphics")) {
+                    return Gdx.graphics;
+                }
+                return defaultValue(method.getReturnType());
+            }
+        });
+        
+        Gdx.input = (Input) stub(Input.class);
+        Gdx.audio = (Audio) stub(Audio.class);
+        Gdx.files = new LwjglFiles();
+    }
+    
+    //backends without a GL context, like the headless one, only need Gdx.gl and Gdx.graphics replaced
+    public static void installGraphics(final int width, final int height) {
+        final GL20 gl = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] {GL20.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+                    int pname = (Integer) args[1];
+                    ((IntBuffer) args[2]).put(0, pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS ? 1 : 0);
+                    return null;
+                } else if (name.equals("glCreateShader") || name.equals("glCreateProgram") || name.equals("glGenBuffer") || name.equals("glGenTexture")) {
+                    return 1;
+                }
+                return defaultValue(method.getReturnType());
+            }
+        });
+        
+        Gdx.graphics = (Graphics) Proxy.newProxyInstance(Graphics.class.getClassLoader(), new Class<?>[] {Graphics.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.equals("getWidth") || name.equals("getBackBufferWidth")) {
+                    return width;
+                } else if (name.equals("getHeight") || name.equals("getBackBufferHeight")) {
+                    return height;
+                } else if (name.equals("getGL20")) {
+                    return gl;
+                }
+                return defaultValue(method.getReturnType());
+            }
+        });
+        
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+        Gdx.gl30 = null;
+    }
+    
+    //every interface returned by a stub is stubbed as well, so sounds and music come back silent
+    private static Object stub(Class<?> type) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getReturnType().isInterface()) {
+                    return stub(method.getReturnType());
+                }
+                return defaultValue(method.getReturnType());
+            }
+        });
+    }
+    
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == float.class) {
+            return 0.0f;
+        } else if (type == double.class) {
+            return 0.0;
+        } else if (type == String.class) {
+            return "";
+        }
+        return null;
+    }
+}
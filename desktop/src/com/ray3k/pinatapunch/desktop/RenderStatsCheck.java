@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.desktop;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.ray3k.pinatapunch.Entity;
+import com.ray3k.pinatapunch.EntityManager;
+import com.ray3k.pinatapunch.RenderStats;
+import com.ray3k.pinatapunch.StatsSpriteBatch;
+
+//draws a crowded screen from two textures against a mocked GL and checks the render call counts
+public class RenderStatsCheck {
+    private static final int ENTITIES = 400;
+    private static final Array<Entity> drawn = new Array<Entity>();
+    
+    public static void main(String[] args) {
+        MockGL.install(800, 600);
+        
+        RenderStats renderStats = new RenderStats();
+        StatsSpriteBatch spriteBatch = new StatsSpriteBatch(renderStats);
+        TextureRegion[] regions = {createRegion(), createRegion()};
+        
+        EntityManager entityManager = new EntityManager();
+        for (int i = 0; i < ENTITIES; i++) {
+            Entity entity = new CheckEntity(entityManager);
+            entity.setTextureRegion(regions[i % regions.length]);
+            entity.setPosition(i % 20 * 10.0f, i / 20 * 10.0f);
+            entity.setCullRadius(2.0f);
+        }
+        
+        //submission order, as entities were drawn before grouping by texture
+        renderStats.beginFrame();
+        renderStats.beginSection(RenderStats.Section.WORLD);
+        spriteBatch.begin();
+        for (Entity entity : entityManager.getEntities()) {
+            spriteBatch.draw(entity.getTextureRegion(), entity.getX(), entity.getY());
+        }
+        spriteBatch.end();
+        renderStats.endFrame();
+        int interleavedCalls = renderStats.getRenderCalls(RenderStats.Section.WORLD);
+        System.out.println("Interleaved: render calls " + interleavedCalls + ", texture switches " + renderStats.getTextureSwitches());
+        
+        renderStats.beginFrame();
+        renderStats.beginSection(RenderStats.Section.WORLD);
+        spriteBatch.begin();
+        entityManager.draw(spriteBatch, 0.0f);
+        spriteBatch.end();
+        renderStats.addEntities(entityManager.getDrawnCount(), entityManager.getCulledCount());
+        renderStats.endFrame();
+        int groupedCalls = renderStats.getRenderCalls(RenderStats.Section.WORLD);
+        System.out.println("Grouped: render calls " + groupedCalls + ", texture switches " + renderStats.getTextureSwitches() + ", max sprites " + renderStats.getMaxSpritesInBatch(RenderStats.Section.WORLD) + ", entities drawn " + renderStats.getDrawnEntities());
+        
+        //entities that overlap keep the order they were added in, whatever their texture
+        entityManager = new EntityManager();
+        Entity first = createEntity(entityManager, regions[0], 0.0f, 0.0f);
+        Entity covering = createEntity(entityManager, regions[1], 0.0f, 0.0f);
+        Entity apart = createEntity(entityManager, regions[0], 100.0f, 100.0f);
+        Entity covered = createEntity(entityManager, regions[0], 0.0f, 0.0f);
+        drawn.clear();
+        spriteBatch.begin();
+        entityManager.draw(spriteBatch, 0.0f);
+        spriteBatch.end();
+        boolean ordered = drawn.indexOf(first, true) < drawn.indexOf(covering, true) && drawn.indexOf(covering, true) < drawn.indexOf(covered, true) && drawn.indexOf(apart, true) < drawn.indexOf(covering, true);
+        System.out.println("Overlapping order " + (ordered ? "kept" : "broken"));
+        
+        boolean passed = interleavedCalls == ENTITIES && groupedCalls == regions.length && renderStats.getDrawnEntities() == ENTITIES && ordered;
+        System.out.println(passed ? "PASSED" : "FAILED");
+        
+        spriteBatch.dispose();
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+    
+    private static Entity createEntity(EntityManager entityManager, TextureRegion region, float x, float y) {
+        Entity entity = new CheckEntity(entityManager);
+        entity.setTextureRegion(region);
+        entity.setPosition(x, y);
+        entity.setCullRadius(2.0f);
+        return entity;
+    }
+    
+    private static TextureRegion createRegion() {
+        Pixmap pixmap = new Pixmap(4, 4, Pixmap.Format.RGBA8888);
+        Texture texture = new Texture(pixmap);
+        pixmap.dispose();
+        return new TextureRegion(texture);
+    }
+    
+    private static class CheckEntity extends Entity {
+        public CheckEntity(EntityManager manager) {
+            super(manager, null);
+        }
+
+        @Override
+        public void create() {
+        }
+
+        @Override
+        public void act(float delta) {
+        }
+
+        @Override
+        public void act_end(float delta) {
+        }
+
+        @Override
+        public void draw(SpriteBatch spriteBatch, float delta) {
+            drawn.add(this);
+        }
+
+        @Override
+        public void destroy() {
+        }
+
+        @Override
+        public void collision(Entity other) {
+        }
+    }
+}
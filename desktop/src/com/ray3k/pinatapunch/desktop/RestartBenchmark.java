@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.desktop;
+
+import com.badlogic.gdx.utils.TimeUtils;
+import com.ray3k.pinatapunch.AssetGroupManager;
+import com.ray3k.pinatapunch.Core;
+import com.ray3k.pinatapunch.StateManager;
+import com.ray3k.pinatapunch.states.GameState;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+//compares restarting a run on the warm GameState with building a new GameState for every run
+public class RestartBenchmark {
+    private static final int RESTARTS = 200;
+    private static final int WARMUP_RESTARTS = 50;
+    private static final int ENEMIES_PER_RUN = 20;
+    
+    public static void main(String[] args) {
+        MockGL.install(800, 600);
+        
+        Core core = new Core();
+        core.initManagers();
+        core.loadAssets();
+        AssetGroupManager assetGroupManager = core.getAssetGroupManager();
+        assetGroupManager.request("enemy-hat");
+        assetGroupManager.request("enemy-spike");
+        while (!assetGroupManager.update()) {
+        }
+        
+        StateManager stateManager = core.getStateManager();
+        stateManager.loadState("game");
+        GameState gameState = (GameState) stateManager.getState("game");
+        
+        long[] resetTimes = new long[RESTARTS];
+        long[] resetBytes = new long[RESTARTS];
+        for (int i = -WARMUP_RESTARTS; i < RESTARTS; i++) {
+            spawnEnemies(gameState);
+            
+            long bytes = allocatedBytes();
+            long start = TimeUtils.nanoTime();
+            gameState.exit();
+            gameState.enter();
+            if (i >= 0) {
+                resetTimes[i] = TimeUtils.nanoTime() - start;
+                resetBytes[i] = allocatedBytes() - bytes;
+            }
+        }
+        
+        long[] coldTimes = new long[RESTARTS];
+        long[] coldBytes = new long[RESTARTS];
+        for (int i = -WARMUP_RESTARTS; i < RESTARTS; i++) {
+            long bytes = allocatedBytes();
+            long start = TimeUtils.nanoTime();
+            GameState coldState = new GameState(core);
+            coldState.create();
+            coldState.enter();
+            if (i >= 0) {
+                coldTimes[i] = TimeUtils.nanoTime() - start;
+                coldBytes[i] = allocatedBytes() - bytes;
+            }
+            
+            spawnEnemies(coldState);
+            coldState.exit();
+            coldState.dispose();
+        }
+        
+        print("Rebuilt world", coldTimes, coldBytes);
+        print("Reset world", resetTimes, resetBytes);
+    }
+    
+    private static void spawnEnemies(GameState gameState) {
+        for (int i = 0; i < ENEMIES_PER_RUN; i++) {
+            gameState.generateEnemy();
+        }
+    }
+    
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    
+    private static void print(String name, long[] times, long[] bytes) {
+        Arrays.sort(times);
+        Arrays.sort(bytes);
+        System.out.println(name + ": p50 " + times[times.length / 2] / 1000 + "us, p95 " + times[times.length * 95 / 100] / 1000 + "us, median allocation " + bytes[bytes.length / 2] / 1024 + "KB");
+    }
+}
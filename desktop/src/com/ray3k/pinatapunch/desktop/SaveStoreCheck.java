@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.desktop;
+
+import com.badlogic.gdx.utils.TimeUtils;
+import com.ray3k.pinatapunch.SaveStore;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+//submits a burst of scores, then reloads the file after simulated crashes and damage and checks what comes back
+public class SaveStoreCheck {
+    private static final int SUBMISSIONS = 1000;
+    
+    public static void main(String[] args) throws IOException {
+        MockGL.install(800, 600);
+        
+        File directory = new File(System.getProperty("java.io.tmpdir"), "save-store-check-" + TimeUtils.millis());
+        directory.mkdirs();
+        File file = new File(directory, "check.sav");
+        File tempFile = new File(file.getPath() + ".tmp");
+        boolean passed = true;
+        
+        SaveStore store = new SaveStore(file);
+        store.load();
+        store.start();
+        long worstSubmit = 0;
+        for (int i = 0; i < SUBMISSIONS; i++) {
+            long start = TimeUtils.nanoTime();
+            store.submitScore(i * 7 % 1009);
+            worstSubmit = Math.max(worstSubmit, TimeUtils.nanoTime() - start);
+        }
+        store.putBoolean("hudVisible", true);
+        store.flush();
+        System.out.println(store.getRequestCount() + " changes in " + store.getWriteCount() + " writes, worst submit " + (worstSubmit / 1000) + "us, file " + file.length() + " bytes");
+        passed &= store.getWriteCount() < store.getRequestCount() && store.getFailedCount() == 0;
+        
+        SaveStore reloaded = reload(file);
+        passed &= check("Reload", reloaded, store.getHighScore(), SUBMISSIONS);
+        passed &= check("Settings", reloaded.getBoolean("hudVisible", false));
+        for (int i = 0; i < store.getScoreCount(); i++) {
+            passed &= reloaded.getScore(i) == store.getScore(i);
+        }
+        store.dispose();
+        
+        //a crash between syncing the temp file and renaming it, with the old file damaged as well
+        copy(file, tempFile);
+        damage(file, file.length() / 2);
+        passed &= check("Damaged file with temp copy", reload(file), store.getHighScore(), SUBMISSIONS);
+        
+        tempFile.delete();
+        damage(file, file.length() - 1);
+        passed &= check("Damaged file alone", reload(file), 0, 0);
+        
+        RandomAccessFile truncated = new RandomAccessFile(file, "rw");
+        truncated.setLength(file.length() / 2);
+        truncated.close();
+        passed &= check("Truncated file", reload(file), 0, 0);
+        
+        file.delete();
+        directory.delete();
+        System.out.println(passed ? "PASSED" : "FAILED");
+        System.exit(passed ? 0 : 1);
+    }
+    
+    private static SaveStore reload(File file) {
+        SaveStore store = new SaveStore(file);
+        store.load();
+        return store;
+    }
+    
+    private static boolean check(String name, SaveStore store, int highScore, int gamesPlayed) {
+        boolean returnValue = store.getHighScore() == highScore && store.getGamesPlayed() == gamesPlayed;
+        System.out.println(name + ": high score " + store.getHighScore() + ", games " + store.getGamesPlayed() + (returnValue ? "" : " (expected " + highScore + ", " + gamesPlayed + ")"));
+        return returnValue;
+    }
+    
+    private static boolean check(String name, boolean value) {
+        System.out.println(name + ": " + value);
+        return value;
+    }
+    
+    private static void damage(File file, long position) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.seek(position);
+        int value = randomAccessFile.read();
+        randomAccessFile.seek(position);
+        randomAccessFile.write(value ^ 0xFF);
+        randomAccessFile.close();
+    }
+    
+    private static void copy(File source, File target) throws IOException {
+        FileInputStream input = new FileInputStream(source);
+        FileOutputStream output = new FileOutputStream(target);
+        try {
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = input.read(buffer)) != -1) {
+                output.write(buffer, 0, length);
+            }
+        } finally {
+            input.close();
+            output.close();
+        }
+    }
+}
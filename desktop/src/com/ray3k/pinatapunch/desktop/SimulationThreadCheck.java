@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.desktop;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.ray3k.pinatapunch.Core;
+import com.ray3k.pinatapunch.RenderStats;
+import com.ray3k.pinatapunch.State;
+import java.util.Arrays;
+
+//renders slow frames with and without the simulation thread and compares how evenly the ticks are spaced,
+//then runs slow ticks under fast frames to see that the frames don't wait for them
+public class SimulationThreadCheck {
+    private static final int FRAMES = 100;
+    private static final int SLOW_FRAME_MILLIS = 40;
+    private static final int FAST_FRAME_MILLIS = 5;
+    private static final int SLOW_TICK_MILLIS = 30;
+    private static final int TICK_MILLIS = 10;
+    private static final int SPRITES = 100;
+    
+    public static void main(String[] args) throws InterruptedException {
+        MockGL.install(800, 600);
+        
+        long singleGap = run(false);
+        long threadedGap = run(true);
+        long frameGap = runSlowTicks();
+        
+        //a tick may be late by one sleep, but never by a whole slow frame, and a frame is never held up by a whole tick
+        boolean passed = singleGap >= SLOW_FRAME_MILLIS - TICK_MILLIS && threadedGap < SLOW_FRAME_MILLIS / 2 && frameGap < FAST_FRAME_MILLIS + SLOW_TICK_MILLIS / 2;
+        System.out.println(passed ? "PASSED" : "FAILED");
+        
+        if (!passed) {
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+    
+    private static long run(boolean threaded) throws InterruptedException {
+        Core core = new Core();
+        core.setSimulationThreaded(threaded);
+        core.create();
+        
+        ProbeState probe = new ProbeState(core, FRAMES * SLOW_FRAME_MILLIS / TICK_MILLIS * 2, 0);
+        core.getStateManager().addState("probe", probe);
+        if (threaded) {
+            synchronized (core.getSimulationThread().getLock()) {
+                core.getStateManager().loadState("probe");
+            }
+        } else {
+            core.getStateManager().loadState("probe");
+        }
+        
+        core.render();
+        probe.ticks = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            Thread.sleep(SLOW_FRAME_MILLIS);
+            core.render();
+        }
+        long elapsed = (System.nanoTime() - startTime) / 1000000;
+        
+        RenderStats renderStats = core.getRenderStats();
+        int ticks = probe.ticks;
+        long[] gaps = new long[ticks - 1];
+        for (int i = 1; i < ticks; i++) {
+            gaps[i - 1] = probe.tickTimes[i] - probe.tickTimes[i - 1];
+        }
+        Arrays.sort(gaps);
+        long p99 = gaps[(int) (gaps.length * .99f)] / 1000000;
+        long max = gaps[gaps.length - 1] / 1000000;
+        
+        System.out.println((threaded ? "Threaded" : "Single thread") + ": " + ticks + " ticks in " + elapsed + "ms, tick gap p99 " + p99 + "ms, max " + max + "ms, world render calls " + renderStats.getRenderCalls(RenderStats.Section.WORLD) + ", entities drawn " + renderStats.getDrawnEntities());
+        
+        boolean drawn = renderStats.getDrawnEntities() == SPRITES && renderStats.getRenderCalls(RenderStats.Section.WORLD) == 1;
+        core.dispose();
+        return drawn ? p99 : Long.MAX_VALUE / 2;
+    }
+    
+    private static long runSlowTicks() throws InterruptedException {
+        Core core = new Core();
+        core.setSimulationThreaded(true);
+        core.create();
+        
+        //streaming takes its own time out of the frames, so it is over before the frames are timed
+        while (!core.getAssetGroupManager().isLoaded("game")) {
+            core.render();
+        }
+        
+        ProbeState probe = new ProbeState(core, FRAMES * 2, SLOW_TICK_MILLIS);
+        core.getStateManager().addState("probe", probe);
+        synchronized (core.getSimulationThread().getLock()) {
+            core.getStateManager().loadState("probe");
+        }
+        
+        core.render();
+        long[] gaps = new long[FRAMES];
+        long previous = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            Thread.sleep(FAST_FRAME_MILLIS);
+            core.render();
+            long time = System.nanoTime();
+            gaps[i] = time - previous;
+            previous = time;
+        }
+        Arrays.sort(gaps);
+        long p99 = gaps[(int) (gaps.length * .99f)] / 1000000;
+        long max = gaps[gaps.length - 1] / 1000000;
+        
+        System.out.println("Threaded, " + SLOW_TICK_MILLIS + "ms ticks: " + probe.ticks + " ticks, frame gap p99 " + p99 + "ms, max " + max + "ms");
+        
+        core.dispose();
+        return p99;
+    }
+    
+    private static class ProbeState extends State {
+        private final long[] tickTimes;
+        private final int tickMillis;
+        private int ticks;
+        private Texture texture;
+        
+        public ProbeState(Core core, int capacity, int tickMillis) {
+            super(core);
+            tickTimes = new long[capacity];
+            this.tickMillis = tickMillis;
+        }
+
+        @Override
+        public void create() {
+            Pixmap pixmap = new Pixmap(4, 4, Pixmap.Format.RGBA8888);
+            texture = new Texture(pixmap);
+            pixmap.dispose();
+        }
+
+        @Override
+        public void enter() {
+        }
+
+        @Override
+        public void draw(SpriteBatch spriteBatch, float delta) {
+            getCore().clearScreen(spriteBatch, 0, 0, 0);
+            
+            RenderStats renderStats = getCore().getRenderStats();
+            renderStats.beginSection(RenderStats.Section.WORLD);
+            spriteBatch.begin();
+            for (int i = 0; i < SPRITES; i++) {
+                spriteBatch.draw(texture, i * 8, 100, 4, 4, 4, 4, 1, 1, i, 0, 0, 4, 4, false, false);
+            }
+            spriteBatch.end();
+            renderStats.addEntities(SPRITES, 0);
+        }
+
+        @Override
+        public void act(float delta) {
+            if (ticks < tickTimes.length) {
+                tickTimes[ticks++] = System.nanoTime();
+            }
+            
+            if (tickMillis > 0) {
+                try {
+                    Thread.sleep(tickMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void exit() {
+        }
+
+        @Override
+        public void dispose() {
+            texture.dispose();
+        }
+
+        @Override
+        public void resize(int width, int height) {
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.pinatapunch.desktop;
+
+import com.badlogic.gdx.utils.TimeUtils;
+import com.ray3k.pinatapunch.AssetGroupManager;
+import com.ray3k.pinatapunch.Core;
+import com.ray3k.pinatapunch.SpawnDirector;
+import com.ray3k.pinatapunch.entities.EnemyEntity;
+import com.ray3k.pinatapunch.states.GameState;
+
+//plays a spawn profile without a window and prints the spawn and live enemy curve with the tick cost at each sample
+public class SpawnStressRun {
+    private static final float TICK = .01f;
+    private static final int SAMPLE_TICKS = 500;
+    
+    public static void main(String[] args) {
+        String profile = args.length > 0 ? args[0] : "stress";
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        
+        MockGL.install(800, 600);
+        
+        Core core = new Core();
+        core.initManagers();
+        core.loadAssets();
+        AssetGroupManager assetGroupManager = core.getAssetGroupManager();
+        while (!assetGroupManager.isLoaded("game")) {
+            assetGroupManager.update();
+        }
+        
+        core.getStateManager().loadState("game");
+        GameState gameState = (GameState) core.getStateManager().getState("game");
+        gameState.exit();
+        gameState.setSpawnProfile(profile);
+        gameState.enter();
+        gameState.setSpawnEnemies(true);
+        SpawnDirector spawnDirector = gameState.getSpawnDirector();
+        
+        System.out.println("Profile " + profile + ", " + seconds + "s");
+        int ticks = (int) (seconds / TICK);
+        long sampleTime = 0;
+        long worstTick = 0;
+        for (int i = 1; i <= ticks; i++) {
+            assetGroupManager.update();
+            
+            long start = TimeUtils.nanoTime();
+            gameState.act(TICK);
+            core.getEventQueue().flush();
+            long time = TimeUtils.nanoTime() - start;
+            sampleTime += time;
+            worstTick = Math.max(worstTick, time);
+            
+            if (i % SAMPLE_TICKS == 0) {
+                System.out.println("  " + (int) spawnDirector.getTime() + "s: rate " + spawnDirector.getRate() + "/s, " + spawnDirector.getSpawnedCount() + " spawned, " + gameState.getEnemyManager().getEnemies().size + " enemies, " + gameState.getEntityManager().getEntityCount() + " entities, tick mean " + (sampleTime / SAMPLE_TICKS / 1000) + "us, worst " + (worstTick / 1000) + "us");
+                sampleTime = 0;
+                worstTick = 0;
+            }
+        }
+        
+        StringBuilder builder = new StringBuilder("Spawned");
+        for (EnemyEntity.Type type : EnemyEntity.Type.values()) {
+            builder.append(" ").append(type).append(" ").append(spawnDirector.getSpawnCount(type));
+        }
+        System.out.println(builder.append(", peak ").append(spawnDirector.getPeakEnemies()).append(" live enemies"));
+        
+        System.exit(0);
+    }
+}